@@ -0,0 +1,140 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndexInitializer;
+import ru.practicum.shareit.item.search.ItemSearchIndexInitializer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Контекст приложения на отдельной базе H2 в памяти для бенчмарков уровня сервисов.
+ * Данные генерируются с фиксированным зерном, поэтому при одинаковых параметрах набор данных всегда один и тот же.
+ */
+public class ServiceBenchmarkFixture implements AutoCloseable {
+
+    private static final long SEED = 42L;
+    private static final int BATCH_SIZE = 1000;
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+    private static final String[] ADJECTIVES = {"новая", "старая", "мощная", "компактная", "ручная", "садовая",
+            "строительная", "аккумуляторная", "электрическая", "профессиональная"};
+    private static final String[] NOUNS = {"дрель", "пила", "лестница", "палатка", "тачка", "отвертка", "газонокосилка",
+            "перфоратор", "стремянка", "болгарка", "удочка", "лодка", "велосипед", "самокат", "проектор", "колонка",
+            "камера", "штатив", "гитара", "мангал"};
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+
+    private ServiceBenchmarkFixture(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * Запускает приложение без веб-сервера и заполняет базу данных.
+     * Пользователь с идентификатором 1 владеет всеми вещами, остальные пользователи их бронируют.
+     * Наименования вещей составлены из небольшого словаря, чтобы поиск по тексту находил реалистичное число вещей.
+     */
+    public static ServiceBenchmarkFixture start(int users, int items, int bookingsPerItem) {
+        return start(users, items, bookingsPerItem, new String[0]);
+    }
+
+    /**
+     * То же, что {@link #start(int, int, int)}, с дополнительными свойствами приложения в виде "name=value".
+     */
+    public static ServiceBenchmarkFixture start(int users, int items, int bookingsPerItem, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.main.banner-mode=off",
+                        // Сгенерированные бронирования не должны менять статус во время измерений.
+                        "shareit.bookings.expiration.enabled=false",
+                        "shareit.items.summary-refresh.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.ru.practicum=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .properties(properties)
+                .run();
+
+        ServiceBenchmarkFixture fixture = new ServiceBenchmarkFixture(context);
+        fixture.seed(users, items, bookingsPerItem);
+        fixture.restartSequences();
+
+        // Индексы в памяти строятся при старте по пустой базе, перестроим их по сгенерированным данным.
+        context.getBean(ItemSearchIndexInitializer.class).rebuild();
+        context.getBean(BookingIntervalIndexInitializer.class).rebuild();
+
+        return fixture;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Long getOwnerId() {
+        return 1L;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private void seed(int users, int items, int bookingsPerItem) {
+        Random random = new Random(SEED);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            userRows.add(new Object[]{"user" + i, "user" + i + "@email.com"});
+        }
+        batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", userRows);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+            itemRows.add(new Object[]{true, 1L, name + " " + i, "Сдается в аренду: " + name});
+        }
+        batchUpdate("INSERT INTO items (is_available, owner_id, name, description) VALUES (?, ?, ?, ?)", itemRows);
+
+        // Бронирования идут друг за другом без пересечений: часть в прошлом, часть в будущем.
+        List<Object[]> bookingRows = new ArrayList<>();
+        for (long itemId = 1; itemId <= items; itemId++) {
+            LocalDateTime start = now.minusDays(bookingsPerItem);
+            for (int i = 0; i < bookingsPerItem; i++) {
+                long bookerId = 2 + random.nextInt(Math.max(users - 1, 1));
+                bookingRows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(20)),
+                        itemId, bookerId, random.nextInt(4) == 0 ? "WAITING" : "APPROVED"});
+                start = start.plusDays(2);
+            }
+        }
+        batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?)",
+                bookingRows);
+    }
+
+    /**
+     * Данные вставляются напрямую в таблицы, минуя последовательности идентификаторов.
+     * Переставим последовательности за наибольший идентификатор, как это делает миграция V3.
+     */
+    private void restartSequences() {
+        for (String table : List.of("users", "requests", "items", "bookings", "comments")) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + (maxId + SEQUENCE_ALLOCATION_SIZE));
+        }
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
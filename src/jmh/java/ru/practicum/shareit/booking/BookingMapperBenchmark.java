@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BookingMapperBenchmark {
+
+    Booking booking;
+    CreateBookingDto createBookingDto;
+
+    @Setup
+    public void setup() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        User owner = User.builder().id(1L).name("owner").email("owner@email.com").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@email.com").build();
+        Item item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+        booking = Booking.builder()
+                .id(1L)
+                .start(start)
+                .end(start.plusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+        createBookingDto = CreateBookingDto.builder()
+                .itemId(item.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+
+    @Benchmark
+    public BookingDto toBookingDto() {
+        return BookingMapper.toBookingDto(booking, null);
+    }
+
+    @Benchmark
+    public BookingDto.Nested toBookingDtoShort() {
+        return BookingMapper.toBookingDtoShort(booking);
+    }
+
+    @Benchmark
+    public Booking toBooking() {
+        return BookingMapper.toBooking(createBookingDto);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ServiceBenchmarkFixture;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка 100 000 бронирований через JPA.
+ * Размер пакета 1 соответствует построчной вставке, как при идентификаторах IDENTITY, размер 50 - настройке приложения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BookingInsertBenchmark {
+
+    private static final int BOOKINGS = 100_000;
+    // Через такое число вставок контекст сохраняемости сбрасывается в базу и очищается.
+    private static final int FLUSH_SIZE = 1000;
+
+    @Param({"1", "50"})
+    int batchSize;
+
+    ServiceBenchmarkFixture fixture;
+    BookingRepository bookingRepository;
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+    JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = ServiceBenchmarkFixture.start(100, 100, 0,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        bookingRepository = fixture.getBean(BookingRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                fixture.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(fixture.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = fixture.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearBookings() {
+        jdbcTemplate.execute("DELETE FROM bookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int insertBookings() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime start = LocalDateTime.now().plusDays(1);
+            List<Booking> bookings = new ArrayList<>(FLUSH_SIZE);
+            for (int i = 0; i < BOOKINGS; i++) {
+                // Ссылки не загружают вещь и пользователя, в бронирование попадают только идентификаторы.
+                bookings.add(Booking.builder()
+                        .item(entityManager.getReference(Item.class, 1L + i % 100))
+                        .booker(entityManager.getReference(User.class, 2L + i % 99))
+                        .start(start.plusDays(i))
+                        .end(start.plusDays(i).plusHours(20))
+                        .status(BookingStatus.WAITING)
+                        .build());
+
+                if (bookings.size() == FLUSH_SIZE) {
+                    bookingRepository.saveAll(bookings);
+                    entityManager.flush();
+                    entityManager.clear();
+                    bookings.clear();
+                }
+            }
+
+            return BOOKINGS;
+        });
+    }
+}
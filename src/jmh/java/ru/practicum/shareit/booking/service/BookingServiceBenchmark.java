@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.service;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.ServiceBenchmarkFixture;
+import ru.practicum.shareit.booking.BookingRequestParam;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение страницы бронирований владельца на разной глубине: по смещению и по курсору.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BookingServiceBenchmark {
+
+    private static final int PAGE_SIZE = 30;
+
+    @Param({"0", "1000", "50000"})
+    int from;
+
+    ServiceBenchmarkFixture fixture;
+    BookingService bookingService;
+    BookingRequestParam offsetParams;
+    BookingRequestParam cursorParams;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // 1000 вещей по 100 бронирований: 100 000 бронирований у одного владельца.
+        fixture = ServiceBenchmarkFixture.start(100, 1000, 100);
+        bookingService = fixture.getBean(BookingService.class);
+
+        offsetParams = BookingRequestParam.builder()
+                .from(from)
+                .size(PAGE_SIZE)
+                .state("ALL")
+                .build();
+
+        // Курсор указывает на бронирование, предшествующее той же странице.
+        String cursor = null;
+        if (from > 0) {
+            BookingRequestParam previousParams = BookingRequestParam.builder()
+                    .from(from - 1)
+                    .size(1)
+                    .state("ALL")
+                    .build();
+            BookingDto previous = bookingService.getBookingsByOwnerId(fixture.getOwnerId(), previousParams).get(0);
+            cursor = new KeysetCursor(previous.getStart(), previous.getId()).encode();
+        }
+        cursorParams = BookingRequestParam.builder()
+                .from(0)
+                .size(PAGE_SIZE)
+                .state("ALL")
+                .cursor(cursor)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerBookingsByOffset() {
+        return bookingService.getBookingsByOwnerId(fixture.getOwnerId(), offsetParams);
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerBookingsByCursor() {
+        return bookingService.getBookingsByOwnerId(fixture.getOwnerId(), cursorParams);
+    }
+}
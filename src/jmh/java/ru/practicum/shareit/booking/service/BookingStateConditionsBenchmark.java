@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.service;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.model.QBooking;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение условия QueryDSL для выборки бронирований по состоянию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BookingStateConditionsBenchmark {
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    String state;
+
+    final QBooking booking = QBooking.booking;
+
+    @Benchmark
+    public BooleanExpression buildCondition() {
+        List<BooleanExpression> conditions = BookingServiceImpl.getStateConditions(booking, state);
+        conditions.add(booking.booker.id.eq(1L));
+
+        return conditions.stream()
+                .reduce(BooleanExpression::and)
+                .get();
+    }
+}
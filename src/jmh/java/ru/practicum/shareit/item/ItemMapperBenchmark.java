@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование вещи в DTO в зависимости от числа комментариев.
+ * Последнее и следующее бронирование берутся из готовой сводки по вещи, коллекция бронирований вещи не читается.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ItemMapperBenchmark {
+
+    @Param({"0", "10", "100"})
+    int comments;
+
+    Item item;
+    ItemBookings itemBookings;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("owner").email("owner@email.com").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@email.com").build();
+        item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+
+        for (int i = 0; i < comments; i++) {
+            item.getComments().add(Comment.builder()
+                    .id((long) i + 1)
+                    .text("Комментарий " + i)
+                    .item(item)
+                    .author(booker)
+                    .created(now.minusDays(i))
+                    .build());
+        }
+
+        itemBookings = ItemBookings.builder()
+                .lastBooking(BookingDto.Nested.builder()
+                        .id(1L)
+                        .bookerId(booker.getId())
+                        .start(now.minusDays(2))
+                        .end(now.minusDays(1))
+                        .status(BookingStatus.APPROVED)
+                        .build())
+                .nextBooking(BookingDto.Nested.builder()
+                        .id(2L)
+                        .bookerId(booker.getId())
+                        .start(now.plusDays(1))
+                        .end(now.plusDays(2))
+                        .status(BookingStatus.APPROVED)
+                        .build())
+                .bookingsCount(2L)
+                .averageRentalMinutes(1440L)
+                .build();
+    }
+
+    @Benchmark
+    public ItemDto toItemDtoWithItemBookings() {
+        return ItemMapper.toItemDto(item, itemBookings);
+    }
+
+    @Benchmark
+    public ItemDto.Nested toItemDtoNested() {
+        return ItemMapper.toItemDtoNested(item, itemBookings);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.search;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.ServiceBenchmarkFixture;
+import ru.practicum.shareit.item.ItemSearchRequestParam;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей по тексту: индекс триграмм в памяти против условия QueryDSL с LIKE '%text%',
+ * которым поиск выполнялся раньше. Для одного миллиона вещей нужно несколько гигабайт памяти.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ItemSearchBenchmark {
+
+    private static final int PAGE_SIZE = 30;
+
+    @Param({"100000", "1000000"})
+    int items;
+
+    // Частое слово и почти уникальное сочетание слова с номером вещи.
+    @Param({"дрель", "дрель 4217"})
+    String text;
+
+    ServiceBenchmarkFixture fixture;
+    ItemService itemService;
+    ItemRepository itemRepository;
+    ItemSearchRequestParam params;
+    BooleanExpression condition;
+    PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = ServiceBenchmarkFixture.start(1, items, 0);
+        itemService = fixture.getBean(ItemService.class);
+        itemRepository = fixture.getBean(ItemRepository.class);
+
+        params = ItemSearchRequestParam.builder()
+                .text(text)
+                .from(0)
+                .size(PAGE_SIZE)
+                .build();
+
+        QItem item = QItem.item;
+        condition = item.available.eq(true)
+                .and(item.name.containsIgnoreCase(text).or(item.description.containsIgnoreCase(text)));
+        pageRequest = PageRequest.of(0, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Item> searchIndex() {
+        return itemService.findByText(params);
+    }
+
+    @Benchmark
+    public List<Item> queryDslLike() {
+        return itemRepository.findAll(condition, pageRequest).getContent();
+    }
+}
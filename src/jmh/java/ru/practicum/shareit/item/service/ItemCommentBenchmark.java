@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ServiceBenchmarkFixture;
+import ru.practicum.shareit.item.model.Comment;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отзыв о вещи с проверкой, что автор брал ее в аренду. Время не должно расти с числом бронирований вещи.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ItemCommentBenchmark {
+
+    private static final Long ITEM_ID = 1L;
+
+    @Param({"10", "100", "1000", "10000"})
+    int bookingsPerItem;
+
+    ServiceBenchmarkFixture fixture;
+    ItemService itemService;
+    Long authorId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = ServiceBenchmarkFixture.start(100, 10, bookingsPerItem);
+        itemService = fixture.getBean(ItemService.class);
+
+        // Автор отзыва - пользователь с подтвержденным бронированием вещи, начавшимся в прошлом.
+        authorId = fixture.getBean(JdbcTemplate.class).queryForObject("SELECT booker_id FROM bookings "
+                        + "WHERE item_id = ? AND status = 'APPROVED' AND start_date < ? ORDER BY id LIMIT 1",
+                Long.class, ITEM_ID, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Comment saveComment() {
+        return itemService.saveComment(Comment.builder().text("Отличная вещь").build(), authorId, ITEM_ID);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.service;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.ServiceBenchmarkFixture;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Список вещей владельца с последним и следующим бронированием, как его формирует контроллер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ItemServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int items;
+
+    ServiceBenchmarkFixture fixture;
+    ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = ServiceBenchmarkFixture.start(100, items, 20);
+        itemService = fixture.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> ownerItems() {
+        Long ownerId = fixture.getOwnerId();
+        List<Item> ownerItems = itemService.getAll(ownerId);
+        Map<Long, ItemBookings> bookings = itemService.getLastAndNextBookings(ownerItems, ownerId);
+
+        return ownerItems.stream()
+                .map(item -> ItemMapper.toItemDto(item, bookings.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+}
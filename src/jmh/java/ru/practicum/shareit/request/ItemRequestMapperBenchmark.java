@@ -0,0 +1,81 @@
+package ru.practicum.shareit.request;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование запроса в DTO в зависимости от числа предложенных вещей.
+ * Бронирования вещей берутся из заранее собранной сводки, как это делает контроллер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ItemRequestMapperBenchmark {
+
+    @Param({"0", "10", "100"})
+    int items;
+
+    ItemRequest itemRequest;
+    Map<Long, ItemBookings> itemBookings;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        User requestor = User.builder().id(1L).name("requestor").email("requestor@email.com").build();
+        User owner = User.builder().id(2L).name("owner").email("owner@email.com").build();
+        itemRequest = ItemRequest.builder()
+                .id(1L)
+                .description("Нужна дрель")
+                .requestor(requestor)
+                .created(now.minusDays(1))
+                .build();
+
+        itemBookings = new HashMap<>();
+        for (int i = 0; i < items; i++) {
+            Item item = Item.builder()
+                    .id((long) i + 1)
+                    .name("Дрель " + i)
+                    .description("Аккумуляторная дрель")
+                    .available(true)
+                    .owner(owner)
+                    .request(itemRequest)
+                    .build();
+            itemRequest.getItems().add(item);
+            itemBookings.put(item.getId(), ItemBookings.builder()
+                    .lastBooking(BookingDto.Nested.builder()
+                            .id(2L * i + 1)
+                            .bookerId(requestor.getId())
+                            .start(now.minusDays(2))
+                            .end(now.minusDays(1))
+                            .status(BookingStatus.APPROVED)
+                            .build())
+                    .nextBooking(BookingDto.Nested.builder()
+                            .id(2L * i + 2)
+                            .bookerId(requestor.getId())
+                            .start(now.plusDays(1))
+                            .end(now.plusDays(2))
+                            .status(BookingStatus.APPROVED)
+                            .build())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public ItemRequestDto toItemRequestDto() {
+        return ItemRequestMapper.toItemRequestDto(itemRequest, itemBookings);
+    }
+}
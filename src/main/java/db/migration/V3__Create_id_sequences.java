@@ -0,0 +1,42 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Создает последовательности для идентификаторов сущностей.
+ * Миграция написана на Java, потому что начальное значение зависит от уже существующих данных,
+ * а синтаксис установки значения последовательности по подзапросу в H2 и PostgreSQL различается.
+ */
+public class V3__Create_id_sequences extends BaseJavaMigration {
+
+    // Должен совпадать с allocationSize в @SequenceGenerator сущностей.
+    private static final int ALLOCATION_SIZE = 50;
+    private static final List<String> TABLES = List.of("users", "requests", "items", "bookings", "comments");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                // Оптимизатор pooled считает значение последовательности верхней границей блока,
+                // поэтому первый блок должен начинаться сразу после наибольшего существующего идентификатора.
+                long startWith = getMaxId(statement, table) + ALLOCATION_SIZE;
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + startWith
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+
+    private static long getMaxId(Statement statement, String table) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+
+            return resultSet.getLong(1);
+        }
+    }
+}
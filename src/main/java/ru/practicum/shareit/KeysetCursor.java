@@ -0,0 +1,48 @@
+package ru.practicum.shareit;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в выборке, отсортированной по дате и идентификатору.
+ * Клиенту передается в виде непрозрачной строки, следующая страница начинается сразу после этой позиции.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime value;
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime value, Long id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = value + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separatorIndex)),
+                    Long.valueOf(raw.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException exception) {
+            throw new BadRequestException("Incorrect cursor: " + cursor);
+        }
+    }
+}
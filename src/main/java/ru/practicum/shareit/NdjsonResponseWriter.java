@@ -0,0 +1,61 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Записывает объекты в ответ в формате NDJSON - по одному JSON-объекту в строке, сразу в поток ответа.
+ * Тип содержимого устанавливается перед записью первой строки: ошибки, возникшие раньше,
+ * обработчик исключений вернет в формате JSON.
+ */
+public class NdjsonResponseWriter {
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final HttpServletResponse response;
+    private final ObjectMapper mapper;
+
+    public NdjsonResponseWriter(HttpServletResponse response, ObjectMapper mapper) {
+        this.response = response;
+        this.mapper = mapper;
+    }
+
+    public void write(Object value) {
+        try {
+            setContentType();
+            response.getOutputStream().write(mapper.writeValueAsBytes(value));
+            response.getOutputStream().write('\n');
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Отправляет клиенту уже записанные строки, не дожидаясь заполнения буфера ответа.
+     */
+    public void flush() {
+        try {
+            response.flushBuffer();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Завершает ответ. Пустой ответ тоже получает тип содержимого NDJSON.
+     */
+    public void finish() {
+        setContentType();
+        flush();
+    }
+
+    private void setContentType() {
+        if (response.getContentType() == null) {
+            response.setContentType(MEDIA_TYPE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionHooks {
+
+    /**
+     * Выполняет действие после фиксации текущей транзакции или сразу, если транзакции нет.
+     * Используется для обновления кэшей и индексов в памяти, чтобы в них не попадали откаченные изменения.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Выполняет действие перед фиксацией текущей транзакции, пока удерживаются ее блокировки, или сразу,
+     * если транзакции нет. Если транзакция после этого не зафиксирована, выполняется rollback.
+     */
+    public static void beforeCommit(Runnable action, Runnable rollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean applied;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                action.run();
+                applied = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (applied && status != STATUS_COMMITTED) {
+                    rollback.run();
+                }
+            }
+        });
+    }
+}
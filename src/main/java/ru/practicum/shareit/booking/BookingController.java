@@ -1,16 +1,25 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.NdjsonResponseWriter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -19,76 +28,118 @@ import java.util.stream.Collectors;
 public class BookingController {
 
     private static final String HEADER_AUTHOR_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
 
     public final BookingService service;
+    public final ItemService itemService;
+    public final ObjectMapper mapper;
 
     @PostMapping
     public BookingDto saveNewBooking(@RequestHeader(HEADER_AUTHOR_ID) Long bookerId,
                                      @Valid @RequestBody CreateBookingDto createBookingDto) {
-        log.info("Handling a request to create a new booking for user with id {}", bookerId);
+        log.debug("Handling a request to create a new booking for user with id {}", bookerId);
 
         Booking booking = BookingMapper.toBooking(createBookingDto);
         Booking savedBooking = service.save(bookerId, booking, createBookingDto.getItemId());
 
-        return BookingMapper.toBookingDto(savedBooking, bookerId);
+        return toBookingDto(savedBooking, bookerId);
+    }
+
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> saveNewBookings(@RequestHeader(HEADER_AUTHOR_ID) Long bookerId,
+                                                       @RequestBody List<CreateBookingDto> createBookingDtos) {
+        log.debug("Handling a request to create {} bookings for user with id {}", createBookingDtos.size(), bookerId);
+
+        return service.saveAll(bookerId, createBookingDtos);
     }
 
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@RequestHeader(HEADER_AUTHOR_ID) Long ownerId,
                                 @PathVariable Long bookingId,
                                 @RequestParam(defaultValue = "false") Boolean approved) {
-        log.info("Processing a booking confirmation request that has an id {}", bookingId);
-
-        Booking booking = service.approve(ownerId, bookingId, approved);
+        log.debug("Processing a booking confirmation request that has an id {}", bookingId);
 
-        return BookingMapper.toBookingDto(booking, ownerId);
+        return service.approve(ownerId, bookingId, approved);
     }
 
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader(HEADER_AUTHOR_ID) Long userId,
                                  @PathVariable Long bookingId) {
-        log.info("Processing a getting booking by user id {}", bookingId);
+        log.debug("Processing a getting booking by user id {}", bookingId);
 
         Booking booking = service.getByIdAndUserId(bookingId, userId);
 
-        return BookingMapper.toBookingDto(booking, userId);
+        return toBookingDto(booking, userId);
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBooker(@RequestHeader(HEADER_AUTHOR_ID) Long bookerId,
-                                           @RequestParam(defaultValue = "ALL") String state,
-                                           @RequestParam(defaultValue = "0") Integer from,
-                                           @RequestParam(defaultValue = "30") Integer size) {
-        log.info("Processing a getting {} bookings for booker id {}", state, bookerId);
+    public ResponseEntity<List<BookingDto>> getAllByBooker(@RequestHeader(HEADER_AUTHOR_ID) Long bookerId,
+                                                           @RequestParam(defaultValue = "ALL") String state,
+                                                           @RequestParam(defaultValue = "0") Integer from,
+                                                           @RequestParam(defaultValue = "30") Integer size,
+                                                           @RequestParam(required = false) String cursor) {
+        log.debug("Processing a getting {} bookings for booker id {}", state, bookerId);
 
         BookingRequestParam params = BookingRequestParam.builder()
                 .from(from)
                 .size(size)
                 .state(state)
+                .cursor(cursor)
                 .build();
-        List<Booking> bookings = service.getBookingsByBookerId(bookerId, params);
+        List<BookingDto> bookings = service.getBookingsByBookerId(bookerId, params);
 
-        return bookings.stream()
-                .map(booking -> BookingMapper.toBookingDto(booking, bookerId))
-                .collect(Collectors.toList());
+        return toPageResponse(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader(HEADER_AUTHOR_ID) Long ownerId,
-                                          @RequestParam(defaultValue = "ALL") String state,
-                                          @RequestParam(defaultValue = "0") Integer from,
-                                          @RequestParam(defaultValue = "30") Integer size) {
-        log.info("Processing a getting {} bookings for owner id {}", state, ownerId);
+    public ResponseEntity<List<BookingDto>> getAllByOwner(@RequestHeader(HEADER_AUTHOR_ID) Long ownerId,
+                                                          @RequestParam(defaultValue = "ALL") String state,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "30") Integer size,
+                                                          @RequestParam(required = false) String cursor) {
+        log.debug("Processing a getting {} bookings for owner id {}", state, ownerId);
 
         BookingRequestParam params = BookingRequestParam.builder()
                 .from(from)
                 .size(size)
                 .state(state)
+                .cursor(cursor)
                 .build();
-        List<Booking> bookings = service.getBookingsByOwnerId(ownerId, params);
+        List<BookingDto> bookings = service.getBookingsByOwnerId(ownerId, params);
+
+        return toPageResponse(bookings, size);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportAllByOwner(@RequestHeader(HEADER_AUTHOR_ID) Long ownerId,
+                                 @RequestParam(defaultValue = "ALL") String state,
+                                 HttpServletResponse response) {
+        log.debug("Processing an export of {} bookings for owner id {}", state, ownerId);
+
+        // Каждое бронирование записывается отдельной строкой сразу в поток ответа.
+        NdjsonResponseWriter writer = new NdjsonResponseWriter(response, mapper);
+        service.exportBookingsByOwnerId(ownerId, state, writer::write);
+        writer.finish();
+    }
+
+    private BookingDto toBookingDto(Booking booking, Long userId) {
+        Item item = booking.getItem();
+        Map<Long, ItemBookings> itemBookings = itemService.getLastAndNextBookings(List.of(item), userId);
+
+        return BookingMapper.toBookingDto(booking, itemBookings.get(item.getId()));
+    }
+
+    private static ResponseEntity<List<BookingDto>> toPageResponse(List<BookingDto> bookings, Integer size) {
+        // Полная страница может быть не последней - передадим курсор для получения следующей.
+        if (bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+
+        BookingDto last = bookings.get(bookings.size() - 1);
+        String nextCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
 
-        return bookings.stream()
-                .map(booking -> BookingMapper.toBookingDto(booking, ownerId))
-                .collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .header(HEADER_NEXT_CURSOR, nextCursor)
+                .body(bookings);
     }
 }
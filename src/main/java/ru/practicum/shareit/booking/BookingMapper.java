@@ -3,18 +3,19 @@ package ru.practicum.shareit.booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.ItemBookings;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.UserMapper;
 
 public class BookingMapper {
 
-    public static BookingDto toBookingDto(Booking booking, Long userId) {
+    public static BookingDto toBookingDto(Booking booking, ItemBookings itemBookings) {
         return BookingDto.builder()
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
                 .status(booking.getStatus())
-                .item(ItemMapper.toItemDtoNested(booking.getItem(), userId))
+                .item(ItemMapper.toItemDtoNested(booking.getItem(), itemBookings))
                 .booker(UserMapper.toUserDtoShort(booking.getBooker()))
                 .build();
     }
@@ -12,4 +12,5 @@ public class BookingRequestParam {
     private Integer from;
     private Integer size;
     private String state;
+    private String cursor;
 }
@@ -4,5 +4,7 @@ public enum BookingStatus {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED,
+    // Владелец не ответил на запрос до начала бронирования.
+    EXPIRED
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+
+/**
+ * Результат создания одного бронирования из пакета: созданное бронирование или причина отказа.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResultDto {
+
+    private Integer index;
+    private Integer status;
+    private BookingDto booking;
+    private String error;
+}
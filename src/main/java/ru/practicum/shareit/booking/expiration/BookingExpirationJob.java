@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.expiration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Периодически переводит в статус EXPIRED бронирования, которые начались, так и не получив ответа владельца.
+ * Бронирования обрабатываются порциями по batchSize, каждая порция - один запрос UPDATE в своей транзакции,
+ * поэтому блокировки строк держатся недолго, а набор бронирований в статусе WAITING остается небольшим.
+ * Индекс интервалов и сводки бронирований вещей не меняются: в них учитываются только подтвержденные бронирования,
+ * а последнее и следующее бронирования сводки читаются по идентификатору вместе с актуальным статусом.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.bookings.expiration.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingExpirationJob {
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final Counter expiredCounter;
+    private final Timer timer;
+
+    public BookingExpirationJob(BookingRepository bookingRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry registry,
+                                @Value("${shareit.bookings.expiration.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.expiredCounter = Counter.builder("shareit.bookings.expired")
+                .description("Waiting bookings moved to the EXPIRED status")
+                .register(registry);
+        this.timer = Timer.builder("shareit.bookings.expiration")
+                .description("Booking expiration run time")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.bookings.expiration.interval:PT1M}",
+            initialDelayString = "${shareit.bookings.expiration.interval:PT1M}")
+    public void run() {
+        timer.record(() -> expire(LocalDateTime.now()));
+    }
+
+    /**
+     * Переводит в статус EXPIRED все ожидающие подтверждения бронирования, начавшиеся до now.
+     * Возвращает число просроченных бронирований.
+     */
+    public long expire(LocalDateTime now) {
+        long count = 0;
+        int updated;
+        do {
+            updated = transaction.execute(status -> bookingRepository.expireWaitingStartedBefore(now, batchSize));
+            count += updated;
+            expiredCounter.increment(updated);
+        } while (updated == batchSize);
+
+        if (count > 0) {
+            log.info("{} waiting bookings started before {} have expired", count, now);
+        }
+
+        return count;
+    }
+}
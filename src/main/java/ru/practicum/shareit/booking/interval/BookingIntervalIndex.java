@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс подтвержденных бронирований в памяти. Для каждой вещи хранится упорядоченный по дате начала
+ * список непересекающихся интервалов, поэтому проверка пересечения выполняется за O(log n).
+ * Индекс видит только подтверждения этого экземпляра приложения, поэтому ни промах, ни попадание
+ * не заменяют проверку в базе данных: попадание может остаться от удаленного бронирования,
+ * а промах - означать подтверждение на другом экземпляре или в обход сервиса.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private volatile Map<Long, NavigableMap<LocalDateTime, Interval>> intervalsByItem = new ConcurrentHashMap<>();
+    // Индекс, который заполняется при перестроении. Пока он не подменил основной, изменения пишутся в оба.
+    private Map<Long, NavigableMap<LocalDateTime, Interval>> rebuilding;
+
+    public synchronized void add(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        add(intervalsByItem, itemId, bookingId, start, end);
+        if (rebuilding != null) {
+            add(rebuilding, itemId, bookingId, start, end);
+        }
+    }
+
+    public synchronized void remove(Long itemId, Long bookingId) {
+        remove(intervalsByItem, itemId, bookingId);
+        if (rebuilding != null) {
+            remove(rebuilding, itemId, bookingId);
+        }
+    }
+
+    /**
+     * Начинает перестроение: новый индекс заполняется через load и до вызова finishRebuild не читается.
+     * В него сразу копируются текущие записи, чтобы не потерять подтверждения, которые еще не зафиксированы
+     * и поэтому могут не попасть в выборку из базы данных.
+     */
+    public synchronized void beginRebuild() {
+        rebuilding = new ConcurrentHashMap<>();
+        intervalsByItem.forEach((itemId, intervals) -> {
+            synchronized (intervals) {
+                rebuilding.put(itemId, new TreeMap<>(intervals));
+            }
+        });
+    }
+
+    public synchronized void load(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (rebuilding == null) {
+            throw new IllegalStateException("Booking interval index rebuild is not started");
+        }
+
+        add(rebuilding, itemId, bookingId, start, end);
+    }
+
+    /**
+     * Атомарно подменяет основной индекс перестроенным.
+     */
+    public synchronized void finishRebuild() {
+        if (rebuilding == null) {
+            throw new IllegalStateException("Booking interval index rebuild is not started");
+        }
+
+        intervalsByItem = rebuilding;
+        rebuilding = null;
+    }
+
+    /**
+     * Возвращает идентификатор подтвержденного бронирования вещи, пересекающегося с периодом [start, end).
+     */
+    public Optional<Long> findOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Interval> intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return Optional.empty();
+        }
+
+        synchronized (intervals) {
+            // Интервалы не пересекаются, поэтому достаточно проверить последний интервал,
+            // начинающийся раньше окончания искомого периода.
+            Map.Entry<LocalDateTime, Interval> candidate = intervals.lowerEntry(end);
+            if (candidate == null || !candidate.getValue().end.isAfter(start)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(candidate.getValue().bookingId);
+        }
+    }
+
+    private static void add(Map<Long, NavigableMap<LocalDateTime, Interval>> intervalsByItem,
+                            Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Interval> intervals = intervalsByItem
+                .computeIfAbsent(itemId, id -> new TreeMap<>());
+
+        synchronized (intervals) {
+            removeFinished(intervals, LocalDateTime.now());
+            intervals.put(start, new Interval(bookingId, start, end));
+        }
+    }
+
+    private static void remove(Map<Long, NavigableMap<LocalDateTime, Interval>> intervalsByItem,
+                               Long itemId, Long bookingId) {
+        NavigableMap<LocalDateTime, Interval> intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return;
+        }
+
+        synchronized (intervals) {
+            intervals.values().removeIf(interval -> interval.bookingId.equals(bookingId));
+        }
+    }
+
+    private static void removeFinished(NavigableMap<LocalDateTime, Interval> intervals, LocalDateTime now) {
+        // Окончания непересекающихся интервалов упорядочены так же, как и их начала.
+        Iterator<Interval> iterator = intervals.values().iterator();
+        while (iterator.hasNext() && iterator.next().end.isBefore(now)) {
+            iterator.remove();
+        }
+    }
+
+    private static class Interval {
+        private final Long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Interval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking.interval;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Заполняет индекс подтвержденными незавершенными бронированиями при старте приложения.
+ * Запросы в это время уже обслуживаются, поэтому индекс строится отдельно и подменяется целиком:
+ * подтверждения, зафиксированные во время загрузки, попадают в оба индекса и не теряются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndexInitializer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex intervalIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Start rebuilding booking interval index");
+
+        intervalIndex.beginRebuild();
+
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = 0;
+        long count = 0;
+        List<BookingDto.Nested> bookings;
+        do {
+            bookings = bookingRepository.findByStatusAndEndAfterAndIdGreaterThan(BookingStatus.APPROVED, now, lastId,
+                    PageRequest.of(0, BATCH_SIZE));
+            for (BookingDto.Nested booking : bookings) {
+                intervalIndex.load(booking.getItemId(), booking.getId(), booking.getStart(), booking.getEnd());
+                lastId = booking.getId();
+            }
+            count += bookings.size();
+        } while (bookings.size() == BATCH_SIZE);
+        intervalIndex.finishRebuild();
+
+        log.info("Finish rebuilding booking interval index, {} bookings indexed", count);
+    }
+}
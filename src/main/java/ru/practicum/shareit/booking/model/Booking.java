@@ -18,8 +18,10 @@ import java.util.Objects;
 @NoArgsConstructor
 public class Booking {
 
+    // Идентификаторы выделяются из последовательности блоками по 50, поэтому Hibernate может отправлять вставки пакетами.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -40,6 +42,12 @@ public class Booking {
     @Column(nullable = false)
     private BookingStatus status;
 
+    // Версия строки для оптимистической блокировки. Условное обновление статуса в репозитории тоже увеличивает ее,
+    // поэтому загруженная ранее сущность не перезапишет новый статус.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,10 +1,139 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
 import ru.practicum.shareit.booking.model.Booking;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @RepositoryRestResource
-public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking>,
+        BookingRepositoryCustom {
+
+    /**
+     * Переводит в статус EXPIRED не более limit ожидающих подтверждения бронирований, начавшихся до now,
+     * одним запросом UPDATE. Возвращает число измененных строк: меньше limit означает, что таких бронирований
+     * больше нет. Повторная проверка статуса во внешнем условии защищает от одновременного подтверждения.
+     * Изменяющий запрос не публикуется через Data REST. Подсказка с затрагиваемой таблицей не дает Hibernate
+     * очищать при каждом вызове весь кэш второго уровня, как он делает для SQL-запросов без нее.
+     */
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "bookings"))
+    @Query(value = "UPDATE bookings SET status = 'EXPIRED', version = version + 1 "
+            + "WHERE status = 'WAITING' AND id IN ("
+            + "SELECT id FROM bookings WHERE status = 'WAITING' AND start_date < :now ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int expireWaitingStartedBefore(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Меняет статус бронирования, только если оно ожидает подтверждения и вещь принадлежит ownerId,
+     * и увеличивает версию строки. Возвращает число измененных строк: 0 означает, что бронирование
+     * не найдено, принадлежит другому владельцу или его статус уже изменен.
+     * Изменяющий запрос не публикуется через Data REST.
+     */
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 "
+            + "where b.id = :bookingId "
+            + "and b.status = ru.practicum.shareit.booking.BookingStatus.WAITING "
+            + "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateStatusIfWaiting(@Param("bookingId") Long bookingId,
+                              @Param("ownerId") Long ownerId,
+                              @Param("status") BookingStatus status);
+
+    /**
+     * Возвращает для каждой из указанных вещей последнее (с наибольшей датой окончания до now)
+     * и следующее (с наименьшей датой окончания после now) бронирование за один запрос.
+     * При равных датах окончания возвращаются все такие бронирования в порядке id, и вызывающий код берет
+     * первое - с наименьшим id. Так же выбирает бронирования BookingRepositoryCustom.findAllAsDto.
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto$Nested("
+            + "b.id, b.start, b.end, b.status, b.item.id, b.booker.id) "
+            + "from Booking b "
+            + "where b.item.id in :itemIds "
+            + "and (b.end = (select max(l.end) from Booking l where l.item = b.item and l.end < :now) "
+            + "or b.end = (select min(n.end) from Booking n where n.item = b.item and n.end > :now)) "
+            + "order by b.id")
+    List<BookingDto.Nested> findLastAndNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
+
+    /**
+     * Возвращает порцию бронирований с указанным статусом, заканчивающихся после указанной даты,
+     * с идентификатором больше afterId.
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto$Nested("
+            + "b.id, b.start, b.end, b.status, b.item.id, b.booker.id) "
+            + "from Booking b "
+            + "where b.status = :status and b.end > :end and b.id > :afterId "
+            + "order by b.id")
+    List<BookingDto.Nested> findByStatusAndEndAfterAndIdGreaterThan(@Param("status") BookingStatus status,
+                                                                    @Param("end") LocalDateTime end,
+                                                                    @Param("afterId") Long afterId,
+                                                                    Pageable pageable);
+
+    /**
+     * Проверяет, что у пользователя есть подтвержденное бронирование вещи, начавшееся до start.
+     * Запрос использует индекс idx_bookings_booker_item_status_start и не зависит от числа бронирований вещи.
+     */
+    boolean existsByBookerIdAndItemIdAndStatusAndStartBefore(Long bookerId,
+                                                             Long itemId,
+                                                             BookingStatus status,
+                                                             LocalDateTime start);
+
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId,
+                                                             BookingStatus status,
+                                                             LocalDateTime end,
+                                                             LocalDateTime start);
+
+    /**
+     * Возвращает периоды бронирований вещи с указанным статусом, пересекающиеся с периодом [from, to),
+     * в порядке начала.
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.IntervalDto(b.start, b.end) "
+            + "from Booking b "
+            + "where b.item.id = :itemId and b.status = :status and b.start < :to and b.end > :from "
+            + "order by b.start")
+    List<IntervalDto> findBookedIntervals(@Param("itemId") Long itemId,
+                                          @Param("status") BookingStatus status,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    /**
+     * Возвращает бронирования указанных вещей с указанным статусом, пересекающиеся с периодом [from, to).
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto$Nested("
+            + "b.id, b.start, b.end, b.status, b.item.id, b.booker.id) "
+            + "from Booking b "
+            + "where b.item.id in :itemIds and b.status = :status and b.start < :to and b.end > :from")
+    List<BookingDto.Nested> findByItemIdsAndStatusAndPeriod(@Param("itemIds") Collection<Long> itemIds,
+                                                            @Param("status") BookingStatus status,
+                                                            @Param("from") LocalDateTime from,
+                                                            @Param("to") LocalDateTime to);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto$Nested("
+            + "b.id, b.start, b.end, b.status, b.item.id, b.booker.id) "
+            + "from Booking b "
+            + "where b.id in :ids")
+    List<BookingDto.Nested> findNestedByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto$Nested("
+            + "b.id, b.start, b.end, b.status, b.item.id, b.booker.id) "
+            + "from Booking b "
+            + "where b.item.id in :itemIds and b.status = :status")
+    List<BookingDto.Nested> findByItemIdsAndStatus(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("status") BookingStatus status);
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Возвращает страницу бронирований, удовлетворяющих условию, сразу в виде BookingDto одним запросом.
+     * Если withItemBookings = true, для вещи каждого бронирования вычисляются идентификаторы последнего
+     * и следующего бронирования - это нужно только владельцу вещи.
+     */
+    List<BookingDto> findAllAsDto(Predicate predicate, Pageable pageable, boolean withItemBookings);
+
+    /**
+     * Передает все бронирования, удовлетворяющие условию, в consumer по одному по мере чтения из базы данных.
+     * Строки читаются однонаправленным курсором порциями фиксированного размера, поэтому расход памяти
+     * не зависит от числа бронирований. Вызывается внутри транзакции: курсор открыт до конца обхода.
+     */
+    void streamAllAsDto(Predicate predicate, Sort sort, boolean withItemBookings, Consumer<BookingDto> consumer);
+}
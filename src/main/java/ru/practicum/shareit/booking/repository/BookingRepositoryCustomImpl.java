@@ -0,0 +1,153 @@
+package ru.practicum.shareit.booking.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class BookingRepositoryCustomImpl extends QuerydslRepositorySupport implements BookingRepositoryCustom {
+
+    // Размер порции строк, которую драйвер получает из базы данных за одно обращение при потоковом чтении.
+    static final int STREAM_FETCH_SIZE = 500;
+
+    BookingRepositoryCustomImpl() {
+        super(Booking.class);
+    }
+
+    @Override
+    public List<BookingDto> findAllAsDto(Predicate predicate, Pageable pageable, boolean withItemBookings) {
+        QBooking booking = QBooking.booking;
+        LocalDateTime now = LocalDateTime.now();
+        Expression<Long> lastBookingId = getLastBookingId(booking, now);
+        Expression<Long> nextBookingId = getNextBookingId(booking, now);
+
+        JPQLQuery<Tuple> query = createQuery(predicate, withItemBookings, booking, lastBookingId, nextBookingId);
+
+        // Если подзапросы не выбирались, в кортеже нет этих колонок и идентификаторы останутся пустыми.
+        return getQuerydsl().applyPagination(pageable, query)
+                .fetch()
+                .stream()
+                .map(tuple -> toBookingDto(tuple, booking, lastBookingId, nextBookingId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAllAsDto(Predicate predicate, Sort sort, boolean withItemBookings, Consumer<BookingDto> consumer) {
+        QBooking booking = QBooking.booking;
+        LocalDateTime now = LocalDateTime.now();
+        Expression<Long> lastBookingId = getLastBookingId(booking, now);
+        Expression<Long> nextBookingId = getNextBookingId(booking, now);
+
+        JPAQuery<Tuple> query = createQuery(predicate, withItemBookings, booking, lastBookingId, nextBookingId);
+        query.setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+
+        // Hibernate читает поток через ScrollableResults в режиме FORWARD_ONLY, драйвер получает строки
+        // порциями по STREAM_FETCH_SIZE. Выбираются только колонки, поэтому контекст персистентности не растет.
+        try (Stream<Tuple> tuples = getQuerydsl().applySorting(sort, query).stream()) {
+            tuples.map(tuple -> toBookingDto(tuple, booking, lastBookingId, nextBookingId))
+                    .forEach(consumer);
+        }
+    }
+
+    private JPAQuery<Tuple> createQuery(Predicate predicate,
+                                        boolean withItemBookings,
+                                        QBooking booking,
+                                        Expression<Long> lastBookingId,
+                                        Expression<Long> nextBookingId) {
+        // Выбираем только колонки, которые нужны BookingDto, без загрузки сущностей.
+        // Последнее и следующее бронирования вещи вычисляются подзапросами в той же выборке,
+        // поэтому бронирования вещи не загружаются в память.
+        List<Expression<?>> columns = new ArrayList<>(List.of(booking.id, booking.start, booking.end, booking.status,
+                booking.item.id, booking.item.name, booking.item.description, booking.item.available,
+                booking.item.request.id, booking.booker.id, booking.booker.email, booking.booker.name));
+        if (withItemBookings) {
+            columns.add(lastBookingId);
+            columns.add(nextBookingId);
+        }
+
+        return new JPAQuery<Void>(getEntityManager())
+                .select(columns.toArray(Expression[]::new))
+                .from(booking)
+                .where(predicate);
+    }
+
+    private static Expression<Long> getLastBookingId(QBooking booking, LocalDateTime now) {
+        QBooking last = new QBooking("last");
+        QBooking lastEnd = new QBooking("lastEnd");
+
+        // Последнее бронирование - с наибольшей датой окончания до текущего момента, при равных датах -
+        // с наименьшим id, как в BookingRepository.findLastAndNextBookings.
+        return JPAExpressions.select(last.id.min())
+                .from(last)
+                .where(last.item.eq(booking.item),
+                        last.end.eq(JPAExpressions.select(lastEnd.end.max())
+                                .from(lastEnd)
+                                .where(lastEnd.item.eq(booking.item), lastEnd.end.lt(now))));
+    }
+
+    private static Expression<Long> getNextBookingId(QBooking booking, LocalDateTime now) {
+        QBooking next = new QBooking("next");
+        QBooking nextEnd = new QBooking("nextEnd");
+
+        // Следующее бронирование - с наименьшей датой окончания после текущего момента, при равных датах -
+        // с наименьшим id.
+        return JPAExpressions.select(next.id.min())
+                .from(next)
+                .where(next.item.eq(booking.item),
+                        next.end.eq(JPAExpressions.select(nextEnd.end.min())
+                                .from(nextEnd)
+                                .where(nextEnd.item.eq(booking.item), nextEnd.end.gt(now))));
+    }
+
+    private static BookingDto toBookingDto(Tuple tuple,
+                                           QBooking booking,
+                                           Expression<Long> lastBookingId,
+                                           Expression<Long> nextBookingId) {
+        ItemDto.Nested item = ItemDto.Nested.builder()
+                .id(tuple.get(booking.item.id))
+                .name(tuple.get(booking.item.name))
+                .description(tuple.get(booking.item.description))
+                .available(tuple.get(booking.item.available))
+                .lastBookingId(tuple.get(lastBookingId))
+                .nextBookingId(tuple.get(nextBookingId))
+                .build();
+
+        Long requestId = tuple.get(booking.item.request.id);
+        if (requestId != null) {
+            item.setRequestId(requestId);
+        }
+
+        UserDto.Nested booker = UserDto.Nested.builder()
+                .id(tuple.get(booking.booker.id))
+                .email(tuple.get(booking.booker.email))
+                .name(tuple.get(booking.booker.name))
+                .build();
+
+        return BookingDto.builder()
+                .id(tuple.get(booking.id))
+                .start(tuple.get(booking.start))
+                .end(tuple.get(booking.end))
+                .status(tuple.get(booking.status))
+                .item(item)
+                .booker(booker)
+                .build();
+    }
+}
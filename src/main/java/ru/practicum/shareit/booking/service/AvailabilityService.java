@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.IntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AvailabilityService {
+
+    List<IntervalDto> getFreeIntervals(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+}
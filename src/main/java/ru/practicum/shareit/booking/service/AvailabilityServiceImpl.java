@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AvailabilityServiceImpl implements AvailabilityService {
+    public final BookingRepository repository;
+    public final ItemService itemService;
+    public final UserService userService;
+
+    @Override
+    public List<IntervalDto> getFreeIntervals(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("The start of the period "
+                    + from
+                    + " must be earlier than its end "
+                    + to);
+        }
+
+        userService.checkUserExist(userId);
+        itemService.getById(itemId);
+
+        // Вещь занята только подтвержденными бронированиями. Получим их одним запросом
+        // в порядке начала и найдем промежутки между ними за один проход.
+        List<IntervalDto> booked = repository.findBookedIntervals(itemId, BookingStatus.APPROVED, from, to);
+
+        List<IntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (IntervalDto interval : booked) {
+            if (interval.getStart().isAfter(cursor)) {
+                free.add(new IntervalDto(cursor, interval.getStart()));
+            }
+            if (interval.getEnd().isAfter(cursor)) {
+                cursor = interval.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new IntervalDto(cursor, to));
+        }
+
+        return free;
+    }
+}
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.BookingRequestParam;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -11,11 +15,15 @@ public interface BookingService {
 
     Booking save(Long bookerId, Booking booking, Long itemId);
 
-    Booking approve(Long ownerId, Long bookingId, Boolean approved);
+    List<BookingBatchResultDto> saveAll(Long bookerId, List<CreateBookingDto> bookingDtos);
+
+    BookingDto approve(Long ownerId, Long bookingId, Boolean approved);
 
     Booking getByIdAndUserId(Long bookingId, Long userId);
 
-    List<Booking> getBookingsByBookerId(Long bookerId, BookingRequestParam params);
+    List<BookingDto> getBookingsByBookerId(Long bookerId, BookingRequestParam params);
+
+    List<BookingDto> getBookingsByOwnerId(Long ownerId, BookingRequestParam params);
 
-    List<Booking> getBookingsByOwnerId(Long ownerId, BookingRequestParam params);
+    void exportBookingsByOwnerId(Long ownerId, String state, Consumer<BookingDto> consumer);
 }
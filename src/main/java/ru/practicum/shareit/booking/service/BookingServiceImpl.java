@@ -2,12 +2,22 @@ package ru.practicum.shareit.booking.service;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRequestParam;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.QBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
@@ -15,73 +25,51 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.retry.RetryOnConflict;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    // Идентификатор нужен как второй ключ сортировки, чтобы порядок бронирований с одинаковым началом был стабильным.
+    private static final Sort BOOKINGS_SORT = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final int MAX_BATCH_SIZE = 5000;
 
     public final BookingRepository repository;
     public final UserService userService;
     public final ItemService itemService;
+    public final BookingIntervalIndex intervalIndex;
+    public final ItemBookingSummaryService summaryService;
 
     @Override
     public Booking getById(Long bookingId) {
-        log.info("Start getting booking by id {}", bookingId);
-
         Booking foundedBooking = repository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException(Booking.class.getSimpleName(), bookingId));
 
-        log.info("Finish getting booking by id {}", bookingId);
-
         return foundedBooking;
     }
 
     @Override
     @Transactional
     public Booking save(Long bookerId, Booking booking, Long itemId) {
-        log.info("Start saving booking {}", booking);
-
-        Item item = itemService.getById(itemId);
-
-        // Выполним проверку доступности товара
-        if (!item.getAvailable()) {
-            throw new BadRequestException("Item with id " + itemId + " is not available");
-        }
-
-        // Выполним проверки на корректность дат начала и окончания бронирования.
-        LocalDateTime now = LocalDateTime.now();
-        if (booking.getEnd().isBefore(now)) {
-            throw new BadRequestException("The booking end date "
-                    + booking.getEnd()
-                    + " cannot be in the past.");
-        }
-
-        if (booking.getStart().isBefore(now)) {
-            throw new BadRequestException("The booking start date "
-                    + booking.getStart()
-                    + " cannot be in the past.");
-        }
+        // Заблокируем вещь, чтобы проверки пересечения бронирований этой вещи выполнялись последовательно.
+        Item item = itemService.getByIdForUpdate(itemId);
 
-        if (booking.getEnd().isBefore(booking.getStart())) {
-            throw new BadRequestException("The booking start date "
-                    + booking.getStart()
-                    + " cannot be earlier than the booking end date "
-                    + booking.getEnd());
-        }
+        // Выполним проверки доступности вещи, корректности дат и заказчика.
+        checkBooking(bookerId, booking, item, LocalDateTime.now());
 
-        // Выполним проверку на корректность заказчика.
-        if (item.getOwner().getId().equals(bookerId)) {
-            throw new NotFoundException("Item with id " + itemId + " cannot be booked by his owner");
-        }
+        // Проверим, что вещь не занята подтвержденным бронированием в этот период.
+        checkNotOverlapping(itemId, booking.getStart(), booking.getEnd());
 
         User booker = userService.getById(bookerId);
 
@@ -89,50 +77,119 @@ public class BookingServiceImpl implements BookingService {
         booking.setBooker(booker);
         booking.setStatus(BookingStatus.WAITING);
         Booking newBooking = repository.save(booking);
-
-        log.info("Finish saving booking {}", booking);
+        summaryService.onBookingsCreated(List.of(newBooking));
 
         return newBooking;
     }
 
     @Override
     @Transactional
-    public Booking approve(Long ownerId, Long bookingId, Boolean approved) {
-        log.info("Start approving a booking with id {}", bookingId);
+    public List<BookingBatchResultDto> saveAll(Long bookerId, List<CreateBookingDto> bookingDtos) {
+        if (bookingDtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("The batch cannot contain more than " + MAX_BATCH_SIZE + " bookings");
+        }
 
-        // Получим заявку на бронирование.
-        Booking booking = getById(bookingId);
+        User booker = userService.getById(bookerId);
 
-        // Проверим, корректность подтверждения бронирования.
-        if (booking.getBooker().getId().equals(ownerId)) {
-            throw new NotFoundException("booker can't confirm the booking");
-        }
+        // Заблокируем все вещи пакета одним запросом, чтобы проверки пересечения выполнялись последовательно
+        // с одиночными бронированиями и подтверждениями.
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(CreateBookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemService.getAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
 
-        if (!booking.getItem().getOwner().getId().equals(ownerId)
-                || !booking.getStatus().equals(BookingStatus.WAITING)) {
+        // Подтвержденные бронирования этих вещей за весь период пакета получим одним запросом,
+        // дальше пересечения проверяются в памяти.
+        Map<Long, List<BookingDto.Nested>> approvedBookings = getApprovedBookings(items.keySet(), bookingDtos);
 
-            throw new BadRequestException("Only the owner of the item can confirm the booking");
+        LocalDateTime now = LocalDateTime.now();
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        Map<Integer, Booking> newBookings = new LinkedHashMap<>();
+        for (int index = 0; index < bookingDtos.size(); index++) {
+            CreateBookingDto bookingDto = bookingDtos.get(index);
+            try {
+                Booking booking = toBatchBooking(bookingDto);
+                Item item = Optional.ofNullable(items.get(bookingDto.getItemId()))
+                        .orElseThrow(() -> new NotFoundException(Item.class.getSimpleName(), bookingDto.getItemId()));
+
+                checkBooking(bookerId, booking, item, now);
+                boolean isOverlapping = approvedBookings.getOrDefault(item.getId(), List.of()).stream()
+                        .anyMatch(approved -> approved.getStart().isBefore(booking.getEnd())
+                                && approved.getEnd().isAfter(booking.getStart()));
+                if (isOverlapping) {
+                    throw getOverlappingException(item.getId(), booking.getStart(), booking.getEnd());
+                }
+
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(BookingStatus.WAITING);
+                newBookings.put(index, booking);
+            } catch (BadRequestException exception) {
+                results[index] = getBatchError(index, HttpStatus.BAD_REQUEST, exception);
+            } catch (NotFoundException exception) {
+                results[index] = getBatchError(index, HttpStatus.NOT_FOUND, exception);
+            }
         }
 
-        // Установим статус бронирования.
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        // Все прошедшие проверки бронирования сохраняются вместе, Hibernate отправляет их пакетами.
+        repository.saveAll(newBookings.values());
+        summaryService.onBookingsCreated(newBookings.values());
+        newBookings.forEach((index, booking) -> results[index] = BookingBatchResultDto.builder()
+                .index(index)
+                .status(HttpStatus.CREATED.value())
+                // Заказчик не может быть владельцем вещи, поэтому сводка по бронированиям вещи ему не показывается.
+                .booking(BookingMapper.toBookingDto(booking, null))
+                .build());
+
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public BookingDto approve(Long ownerId, Long bookingId, Boolean approved) {
+        // Отклонение не требует проверки пересечений: сразу выполним условное обновление без загрузки бронирования.
+        if (!approved) {
+            if (repository.updateStatusIfWaiting(bookingId, ownerId, BookingStatus.REJECTED) == 0) {
+                throw getApprovalException(ownerId, bookingId);
+            }
+
+            return findOwnerBooking(ownerId, bookingId)
+                    .orElseThrow(() -> getApprovalConflictException(bookingId));
         }
 
-        // Сохраним результат подтверждения.
-        Booking savedBooking = repository.save(booking);
+        // Одна выборка колонок дает все для проверок и для ответа: сущности бронирования, вещи и пользователей
+        // не загружаются. Бронирование не найдется, если вещь принадлежит другому пользователю.
+        BookingDto booking = findOwnerBooking(ownerId, bookingId)
+                .filter(found -> found.getStatus() == BookingStatus.WAITING)
+                .orElseThrow(() -> getApprovalException(ownerId, bookingId));
+
+        // Подтвердить можно только бронирование, не пересекающееся с уже подтвержденными.
+        Long itemId = booking.getItem().getId();
+        itemService.getByIdForUpdate(itemId);
+        checkNotOverlapping(itemId, booking.getStart(), booking.getEnd());
+
+        // Условное обновление: из одновременных подтверждений статус WAITING изменит только одно,
+        // остальные повторятся и получат ошибку по актуальному статусу.
+        if (repository.updateStatusIfWaiting(bookingId, ownerId, BookingStatus.APPROVED) == 0) {
+            throw getApprovalConflictException(bookingId);
+        }
 
-        log.info("Finish approving a booking with id {}", bookingId);
+        booking.setStatus(BookingStatus.APPROVED);
+        summaryService.onBookingApproved(itemId, booking.getStart(), booking.getEnd());
+        // Добавим бронирование в индекс до фиксации, пока вещь заблокирована: следующая проверка пересечений
+        // этой вещи начнется после фиксации и уже увидит его в индексе.
+        TransactionHooks.beforeCommit(
+                () -> intervalIndex.add(itemId, bookingId, booking.getStart(), booking.getEnd()),
+                () -> intervalIndex.remove(itemId, bookingId));
 
-        return savedBooking;
+        return booking;
     }
 
     @Override
     public Booking getByIdAndUserId(Long bookingId, Long userId) {
-        log.info("Start getting booking by id and user id {}", bookingId);
-
         Booking booking = getById(bookingId);
 
         // Проверим, что получение заказа осуществляется владельцем вещи или заказчиком.
@@ -141,16 +198,13 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Only the owner or booker can getting a booking");
         }
 
-        log.info("Finish getting booking by id and user id {}", bookingId);
-
         return booking;
     }
 
     @Override
-    public List<Booking> getBookingsByBookerId(Long bookerId, BookingRequestParam params) {
-        log.info("Start getting {} bookings by booker with id {}", params.getState(), bookerId);
-
+    public List<BookingDto> getBookingsByBookerId(Long bookerId, BookingRequestParam params) {
         userService.checkUserExist(bookerId);
+        checkPageParams(params);
 
         // Для поиска запросов используем QueryDSL чтобы было удобно настраивать разные варианты фильтров
         QBooking booking = QBooking.booking;
@@ -163,30 +217,24 @@ public class BookingServiceImpl implements BookingService {
         // должен получить только свои бронирования.
         conditions.add(booking.booker.id.eq(bookerId));
 
+        // Если передан курсор, продолжим выборку сразу после последнего полученного бронирования.
+        if (params.getCursor() != null) {
+            conditions.add(getSeekCondition(booking, KeysetCursor.decode(params.getCursor())));
+        }
+
         // из всех подготовленных условий, составляем единое условие
         BooleanExpression finalCondition = conditions.stream()
                 .reduce(BooleanExpression::and)
                 .get();
 
-        Sort sort = Sort.by("Start").descending();
-        MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), sort);
-
-        Iterable<Booking> foundBookings = repository.findAll(finalCondition, pageRequest);
-
-        // Преобразуем результат поиска в список.
-        List<Booking> bookings = new ArrayList<>();
-        foundBookings.forEach(bookings::add);
-
-        log.info("Finish getting {} bookings by booker with id {}", params.getState(), bookerId);
-
-        return bookings;
+        // Заказчик не может быть владельцем вещи, поэтому последнее и следующее бронирования вещи ему не нужны.
+        return repository.findAllAsDto(finalCondition, getPageRequest(params), false);
     }
 
     @Override
-    public List<Booking> getBookingsByOwnerId(Long ownerId, BookingRequestParam params) {
-        log.info("Start getting {} bookings by owner with id {}", params.getState(), ownerId);
-
+    public List<BookingDto> getBookingsByOwnerId(Long ownerId, BookingRequestParam params) {
         userService.checkUserExist(ownerId);
+        checkPageParams(params);
 
         // Для поиска запросов используем QueryDSL чтобы было удобно настраивать разные варианты фильтров
         QBooking booking = QBooking.booking;
@@ -199,26 +247,188 @@ public class BookingServiceImpl implements BookingService {
         // вещей, принадлежащих указанному пользователю.
         conditions.add(booking.item.owner.id.eq(ownerId));
 
+        // Если передан курсор, продолжим выборку сразу после последнего полученного бронирования.
+        if (params.getCursor() != null) {
+            conditions.add(getSeekCondition(booking, KeysetCursor.decode(params.getCursor())));
+        }
+
         // из всех подготовленных условий, составляем единое условие
         BooleanExpression finalCondition = conditions.stream()
                 .reduce(BooleanExpression::and)
                 .get();
 
-        Sort sort = Sort.by("Start").descending();
-        MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), sort);
+        return repository.findAllAsDto(finalCondition, getPageRequest(params), true);
+    }
+
+    @Override
+    public void exportBookingsByOwnerId(Long ownerId, String state, Consumer<BookingDto> consumer) {
+        userService.checkUserExist(ownerId);
+
+        QBooking booking = QBooking.booking;
+        List<BooleanExpression> conditions = getStateConditions(booking, state);
+        conditions.add(booking.item.owner.id.eq(ownerId));
+
+        BooleanExpression finalCondition = conditions.stream()
+                .reduce(BooleanExpression::and)
+                .get();
+
+        // Бронирования передаются в consumer по мере чтения, вся история владельца в памяти не собирается.
+        repository.streamAllAsDto(finalCondition, BOOKINGS_SORT, true, consumer);
+    }
+
+    private Optional<BookingDto> findOwnerBooking(Long ownerId, Long bookingId) {
+        QBooking booking = QBooking.booking;
+
+        // Ответ получает владелец вещи, поэтому вместе с бронированием вычисляются последнее и следующее
+        // бронирования его вещи.
+        return repository.findAllAsDto(booking.id.eq(bookingId).and(booking.item.owner.id.eq(ownerId)),
+                        PageRequest.of(0, 1), true).stream()
+                .findFirst();
+    }
+
+    // Подтверждение не выполнено: загрузим бронирование полностью, только чтобы сообщить причину.
+    private RuntimeException getApprovalException(Long ownerId, Long bookingId) {
+        checkApproval(ownerId, getById(bookingId));
+
+        return getApprovalConflictException(bookingId);
+    }
+
+    private static void checkApproval(Long ownerId, Booking booking) {
+        if (booking.getBooker().getId().equals(ownerId)) {
+            throw new NotFoundException("booker can't confirm the booking");
+        }
+
+        if (!booking.getItem().getOwner().getId().equals(ownerId)
+                || !booking.getStatus().equals(BookingStatus.WAITING)) {
+            throw new BadRequestException("Only the owner of the item can confirm the booking");
+        }
+    }
 
-        Iterable<Booking> foundBookings = repository.findAll(finalCondition, pageRequest);
+    private static OptimisticLockingFailureException getApprovalConflictException(Long bookingId) {
+        return new OptimisticLockingFailureException("The status of the booking with id "
+                + bookingId
+                + " was changed concurrently");
+    }
+
+    private void checkNotOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        // Источник истины - база данных: проверка выполняется всегда, под блокировкой вещи. Индекс в памяти
+        // знает только подтверждения этого экземпляра, поэтому его промаху доверять нельзя.
+        if (repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId,
+                BookingStatus.APPROVED, end, start)) {
+            throw getOverlappingException(itemId, start, end);
+        }
+
+        // В базе данных пересечения нет, значит найденная в индексе запись осталась от удаленного бронирования.
+        intervalIndex.findOverlapping(itemId, start, end)
+                .ifPresent(bookingId -> intervalIndex.remove(itemId, bookingId));
+    }
+
+    private static void checkBooking(Long bookerId, Booking booking, Item item, LocalDateTime now) {
+        // Выполним проверку доступности товара
+        if (!item.getAvailable()) {
+            throw new BadRequestException("Item with id " + item.getId() + " is not available");
+        }
 
-        // Преобразуем результат поиска в список.
-        List<Booking> bookings = new ArrayList<>();
-        foundBookings.forEach(bookings::add);
+        // Выполним проверки на корректность дат начала и окончания бронирования.
+        if (booking.getEnd().isBefore(now)) {
+            throw new BadRequestException("The booking end date "
+                    + booking.getEnd()
+                    + " cannot be in the past.");
+        }
 
-        log.info("Finish getting {} bookings by owner with id {}", params.getState(), ownerId);
+        if (booking.getStart().isBefore(now)) {
+            throw new BadRequestException("The booking start date "
+                    + booking.getStart()
+                    + " cannot be in the past.");
+        }
+
+        if (booking.getEnd().isBefore(booking.getStart())) {
+            throw new BadRequestException("The booking start date "
+                    + booking.getStart()
+                    + " cannot be earlier than the booking end date "
+                    + booking.getEnd());
+        }
+
+        // Выполним проверку на корректность заказчика.
+        if (item.getOwner().getId().equals(bookerId)) {
+            throw new NotFoundException("Item with id " + item.getId() + " cannot be booked by his owner");
+        }
+    }
+
+    private static BadRequestException getOverlappingException(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BadRequestException("Item with id "
+                + itemId
+                + " is already booked for the period from "
+                + start
+                + " to "
+                + end);
+    }
+
+    private Map<Long, List<BookingDto.Nested>> getApprovedBookings(Collection<Long> itemIds,
+                                                                  List<CreateBookingDto> bookingDtos) {
+        Optional<LocalDateTime> from = bookingDtos.stream()
+                .map(CreateBookingDto::getStart)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder());
+        Optional<LocalDateTime> to = bookingDtos.stream()
+                .map(CreateBookingDto::getEnd)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder());
+        if (itemIds.isEmpty() || from.isEmpty() || to.isEmpty()) {
+            return Map.of();
+        }
+
+        return repository.findByItemIdsAndStatusAndPeriod(itemIds, BookingStatus.APPROVED, from.get(), to.get())
+                .stream()
+                .collect(Collectors.groupingBy(BookingDto.Nested::getItemId));
+    }
+
+    private static Booking toBatchBooking(CreateBookingDto bookingDto) {
+        // Элементы пакета не проходят валидацию аннотаций, поэтому обязательные поля проверим сами.
+        if (bookingDto.getItemId() == null) {
+            throw new BadRequestException("The booked item id must be specified");
+        }
+
+        if (bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+            throw new BadRequestException("The booking start and end dates must be specified");
+        }
+
+        return BookingMapper.toBooking(bookingDto);
+    }
+
+    private static BookingBatchResultDto getBatchError(int index, HttpStatus status, RuntimeException exception) {
+        return BookingBatchResultDto.builder()
+                .index(index)
+                .status(status.value())
+                .error(exception.getMessage())
+                .build();
+    }
+
+    private static void checkPageParams(BookingRequestParam params) {
+        if (params.getFrom() < 0 || params.getSize() < 1) {
+            throw new BadRequestException("Incorrect paging parameters: from "
+                    + params.getFrom()
+                    + ", size "
+                    + params.getSize());
+        }
+    }
+
+    private static Pageable getPageRequest(BookingRequestParam params) {
+        // В режиме курсора смещение не используется: база данных сразу переходит к нужной позиции индекса.
+        if (params.getCursor() != null) {
+            return PageRequest.of(0, params.getSize(), BOOKINGS_SORT);
+        }
+
+        return new MyPageRequest(params.getFrom(), params.getSize(), BOOKINGS_SORT);
+    }
 
-        return bookings;
+    private static BooleanExpression getSeekCondition(QBooking booking, KeysetCursor cursor) {
+        // Бронирования упорядочены по убыванию (start, id), поэтому следующими идут строго меньшие пары.
+        return booking.start.lt(cursor.getValue())
+                .or(booking.start.eq(cursor.getValue()).and(booking.id.lt(cursor.getId())));
     }
 
-    private static List<BooleanExpression> getStateConditions(QBooking booking, String state) {
+    static List<BooleanExpression> getStateConditions(QBooking booking, String state) {
         List<BooleanExpression> conditions = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
         switch (state.toUpperCase()) {
@@ -239,7 +449,8 @@ public class BookingServiceImpl implements BookingService {
                 break;
             case "WAITING":
             case "REJECTED":
-                // Получим завершенные или ожидающие подтверждения бронирования.
+            case "EXPIRED":
+                // Получим ожидающие подтверждения, отклоненные или просроченные бронирования.
                 conditions.add(booking.status.eq(BookingStatus.valueOf(state)));
                 break;
             default:
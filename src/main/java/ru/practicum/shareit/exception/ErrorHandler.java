@@ -1,9 +1,11 @@
 package ru.practicum.shareit.exception;
 
+import io.micrometer.core.instrument.Metrics;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,6 +20,7 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ApiError handleNotFoundException(NotFoundException exception) {
         log.error("404: {}", exception.getMessage(), exception);
+        countError(exception, HttpStatus.NOT_FOUND);
 
         return new ApiError("Entity not found", exception.getMessage());
     }
@@ -26,6 +29,7 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleValidationException(MethodArgumentNotValidException exception) {
         log.error("400: {}", exception.getMessage(), exception);
+        countError(exception, HttpStatus.BAD_REQUEST);
 
         return new ApiError("Validation error", exception.getMessage());
     }
@@ -34,6 +38,7 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ApiError handleInternalException(Throwable exception) {
         log.error("500: {}", exception.getMessage(), exception);
+        countError(exception, HttpStatus.INTERNAL_SERVER_ERROR);
 
         return new ApiError("500", exception.getMessage());
     }
@@ -42,10 +47,27 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError incorrectParameterException(BadRequestException exception) {
         log.error("400: {}", exception.getMessage(), exception);
+        countError(exception, HttpStatus.BAD_REQUEST);
 
         return new ApiError("Bad Request", exception.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiError handleConflictException(OptimisticLockingFailureException exception) {
+        log.error("409: {}", exception.getMessage(), exception);
+        countError(exception, HttpStatus.CONFLICT);
+
+        return new ApiError("Conflict", exception.getMessage());
+    }
+
+    private static void countError(Throwable exception, HttpStatus status) {
+        Metrics.counter("shareit.errors",
+                        "exception", exception.getClass().getSimpleName(),
+                        "status", String.valueOf(status.value()))
+                .increment();
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item;
+
+import lombok.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookings {
+    private BookingDto.Nested lastBooking;
+    private BookingDto.Nested nextBooking;
+    private Long bookingsCount;
+    private Long averageRentalMinutes;
+}
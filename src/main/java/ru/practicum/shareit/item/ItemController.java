@@ -1,16 +1,28 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.NdjsonResponseWriter;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.service.AvailabilityService;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.importer.ItemImportReader;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,55 +34,103 @@ public class ItemController {
     private static final String HEADER_OWNER_ID = "X-Sharer-User-Id";
 
     public final ItemService service;
+    public final AvailabilityService availabilityService;
+    public final ItemImportService importService;
+    public final ObjectMapper mapper;
 
     @PostMapping
     public ItemDto saveNewItem(@RequestHeader(HEADER_OWNER_ID) Long ownerId, @Valid @RequestBody ItemDto itemDto) {
-        log.info("Handling a request to create a new item for owner with id {}", ownerId);
+        log.debug("Handling a request to create a new item for owner with id {}", ownerId);
 
         Item item = ItemMapper.toItem(itemDto);
         Item savedItem = service.save(ownerId, item, itemDto.getRequestId());
 
-        return ItemMapper.toItemDto(savedItem, ownerId);
+        // У новой вещи еще нет бронирований.
+        return ItemMapper.toItemDto(savedItem, null);
+    }
+
+    @PostMapping("/import")
+    public void importItems(@RequestHeader(HEADER_OWNER_ID) Long ownerId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        log.debug("Handling a request to import items for owner with id {}", ownerId);
+
+        // Формат файла определяется по типу содержимого: text/csv или application/x-ndjson.
+        // Файл разбирается по мере загрузки, а ход импорта отправляется клиенту после каждой сохраненной порции.
+        ItemImportReader reader = ItemImportReader.of(request.getContentType(), request.getInputStream(), mapper);
+        NdjsonResponseWriter writer = new NdjsonResponseWriter(response, mapper);
+        importService.importItems(ownerId, reader, progress -> {
+            writer.write(progress);
+            writer.flush();
+        });
+        writer.finish();
     }
 
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader(HEADER_OWNER_ID) Long ownerId,
                           @PathVariable Long itemId,
                           @RequestBody ItemDto itemDto) {
-        log.info("Handling a request to update the item with id {} for owner with id {}", itemId, ownerId);
+        log.debug("Handling a request to update the item with id {} for owner with id {}", itemId, ownerId);
 
         Item item = ItemMapper.toItem(itemDto);
         Item updatedItem = service.update(ownerId, itemId, itemDto.getRequestId(), item);
+        Map<Long, ItemBookings> itemBookings = service.getLastAndNextBookings(List.of(updatedItem), ownerId);
 
-        return ItemMapper.toItemDto(updatedItem, ownerId);
+        return ItemMapper.toItemDto(updatedItem, itemBookings.get(updatedItem.getId()));
     }
 
     @GetMapping("/{itemId}")
     public ItemDto getById(@RequestHeader(HEADER_OWNER_ID) Long userId,
                            @PathVariable Long itemId) {
-        log.info("Handling a request to get an item with id {}", itemId);
+        log.debug("Handling a request to get an item with id {}", itemId);
 
         Item item = service.getById(itemId);
+        Map<Long, ItemBookings> itemBookings = service.getLastAndNextBookings(List.of(item), userId);
 
-        return ItemMapper.toItemDto(item, userId);
+        return ItemMapper.toItemDto(item, itemBookings.get(item.getId()));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<IntervalDto> getAvailability(@RequestHeader(HEADER_OWNER_ID) Long userId,
+                                             @PathVariable Long itemId,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                             LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                             LocalDateTime to) {
+        log.debug("Handling a request to get free intervals of item with id {} from {} to {}", itemId, from, to);
+
+        return availabilityService.getFreeIntervals(userId, itemId, from, to);
     }
 
     @GetMapping
     public List<ItemDto> getAllOwnersItems(@RequestHeader(HEADER_OWNER_ID) Long ownerId) {
-        log.info("Handling get all items for owner with id {}", ownerId);
+        log.debug("Handling get all items for owner with id {}", ownerId);
+
+        List<Item> items = service.getAll(ownerId);
+        Map<Long, ItemBookings> itemBookings = service.getLastAndNextBookings(items, ownerId);
 
-        return service.getAll(ownerId).stream()
-                .map(item -> ItemMapper.toItemDto(item, ownerId))
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item, itemBookings.get(item.getId())))
                 .collect(Collectors.toList());
     }
 
     @GetMapping("/search")
     public List<ItemDto> findItemsByText(@RequestHeader(HEADER_OWNER_ID) Long userId,
-                                         @RequestParam String text) {
-        log.info("Processing a request to search for an item by text: {}", text);
-
-        return service.findByText(text).stream()
-                .map(item -> ItemMapper.toItemDto(item, userId))
+                                         @RequestParam String text,
+                                         @RequestParam(defaultValue = "0") Integer from,
+                                         @RequestParam(defaultValue = "30") Integer size) {
+        log.debug("Processing a request to search for an item by text: {}", text);
+
+        ItemSearchRequestParam params = ItemSearchRequestParam.builder()
+                .text(text)
+                .from(from)
+                .size(size)
+                .build();
+        List<Item> items = service.findByText(params);
+        Map<Long, ItemBookings> itemBookings = service.getLastAndNextBookings(items, userId);
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item, itemBookings.get(item.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -78,7 +138,7 @@ public class ItemController {
     public CommentDto saveNewComment(@RequestHeader(HEADER_OWNER_ID) Long authorId,
                                      @PathVariable Long itemId,
                                      @Valid @RequestBody CommentDto commentDto) {
-        log.info("Handling a request to create a new comment for item id {} by author with id {}", itemId, authorId);
+        log.debug("Handling a request to create a new comment for item id {} by author with id {}", itemId, authorId);
 
         Comment comment = ItemMapper.toComment(commentDto);
         Comment savedComment = service.saveComment(comment, authorId, itemId);
@@ -1,25 +1,19 @@
 package ru.practicum.shareit.item;
 
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
-import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 public class ItemMapper {
 
-    public static ItemDto toItemDto(Item item, Long userId) {
-
-        Optional<Booking> lastBookingOptional = getLastBooking(item, userId);
-        Optional<Booking> nextBookingOptional = getNextBooking(item, userId);
+    public static ItemDto toItemDto(Item item, ItemBookings itemBookings) {
 
         Set<CommentDto.Nested> comments = item.getComments().stream()
                 .map(ItemMapper::toCommentDtoNested)
@@ -30,11 +24,16 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBooking(lastBookingOptional.map(BookingMapper::toBookingDtoShort).orElse(null))
-                .nextBooking(nextBookingOptional.map(BookingMapper::toBookingDtoShort).orElse(null))
                 .comments(comments)
                 .build();
 
+        if (itemBookings != null) {
+            itemDto.setLastBooking(itemBookings.getLastBooking());
+            itemDto.setNextBooking(itemBookings.getNextBooking());
+            itemDto.setBookingsCount(itemBookings.getBookingsCount());
+            itemDto.setAverageRentalMinutes(itemBookings.getAverageRentalMinutes());
+        }
+
         ItemRequest request = item.getRequest();
         if (request != null) {
             itemDto.setRequestId(request.getId());
@@ -43,20 +42,24 @@ public class ItemMapper {
         return itemDto;
     }
 
-    public static ItemDto.Nested toItemDtoNested(Item item, Long userId) {
-
-        Optional<Booking> lastBookingOptional = getLastBooking(item, userId);
-        Optional<Booking> nextBookingOptional = getNextBooking(item, userId);
+    public static ItemDto.Nested toItemDtoNested(Item item, ItemBookings itemBookings) {
 
         ItemDto.Nested itemDtoNested = ItemDto.Nested.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBookingId(lastBookingOptional.map(Booking::getId).orElse(null))
-                .nextBookingId(nextBookingOptional.map(Booking::getId).orElse(null))
                 .build();
 
+        if (itemBookings != null) {
+            itemDtoNested.setLastBookingId(Optional.ofNullable(itemBookings.getLastBooking())
+                    .map(BookingDto.Nested::getId)
+                    .orElse(null));
+            itemDtoNested.setNextBookingId(Optional.ofNullable(itemBookings.getNextBooking())
+                    .map(BookingDto.Nested::getId)
+                    .orElse(null));
+        }
+
         ItemRequest request = item.getRequest();
         if (request != null) {
             itemDtoNested.setRequestId(request.getId());
@@ -99,29 +102,4 @@ public class ItemMapper {
                 .created(comment.getCreated())
                 .build();
     }
-
-    private static Optional<Booking> getLastBooking(Item item, Long userId) {
-        if (!item.getOwner().getId().equals(userId)) {
-            return Optional.empty();
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        return item.getBookings().stream()
-                .filter(booking -> (booking.getEnd().isBefore(now)))
-                .max(Comparator.comparing(Booking::getEnd));
-    }
-
-    private static Optional<Booking> getNextBooking(Item item, Long userId) {
-        if (!item.getOwner().getId().equals(userId)) {
-            return Optional.empty();
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        return item.getBookings().stream()
-                .filter(booking -> (booking.getEnd().isAfter(now)))
-                .min(Comparator.comparing(Booking::getEnd));
-    }
-
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ItemSearchRequestParam {
+    private String text;
+    private Integer from;
+    private Integer size;
+}
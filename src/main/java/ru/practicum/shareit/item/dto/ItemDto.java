@@ -29,6 +29,8 @@ public class ItemDto {
 
     private BookingDto.Nested lastBooking;
     private BookingDto.Nested nextBooking;
+    private Long bookingsCount;
+    private Long averageRentalMinutes;
     private Set<CommentDto.Nested> comments;
     private long requestId;
 
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+/**
+ * Строка импортируемого файла, которая не была сохранена, и причина отказа.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportErrorDto {
+
+    private Long line;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Ход импорта вещей после фиксации очередной порции: счетчики с начала импорта
+ * и ошибки строк только этой порции. Последнее сообщение содержит итоговые счетчики.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportProgressDto {
+
+    private Long processed;
+    private Long saved;
+    private Long failed;
+    private List<ItemImportErrorDto> errors;
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item.importer;
+
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Читает вещи из CSV по RFC 4180. Первая запись - заголовок с колонками name, description, available
+ * и необязательной колонкой requestId, порядок колонок любой. Значения в кавычках могут содержать
+ * запятые, переводы строк и удвоенные кавычки.
+ */
+class CsvItemImportReader implements ItemImportReader {
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "available");
+    private static final String REQUEST_ID_COLUMN = "requestid";
+
+    private final BufferedReader reader;
+    private Map<String, Integer> columns;
+    private long line = 1;
+    private boolean unterminatedQuote;
+
+    CsvItemImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ItemImportRow read() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+
+        // Пустые строки между записями пропускаются.
+        long recordLine;
+        List<String> values;
+        do {
+            recordLine = line;
+            values = readRecord();
+        } while (values != null && values.size() == 1 && values.get(0).isEmpty());
+
+        if (values == null) {
+            return null;
+        }
+
+        return toRow(recordLine, values);
+    }
+
+    private void readHeader() throws IOException {
+        List<String> names = readRecord();
+        columns = new HashMap<>();
+        if (names != null) {
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(), i);
+            }
+        }
+
+        if (!columns.keySet().containsAll(REQUIRED_COLUMNS)) {
+            throw new BadRequestException("The CSV header must contain the columns " + REQUIRED_COLUMNS);
+        }
+    }
+
+    private ItemImportRow toRow(long recordLine, List<String> values) {
+        if (unterminatedQuote) {
+            return ItemImportRow.error(recordLine, "Unterminated quoted value");
+        }
+
+        if (values.size() != columns.size()) {
+            return ItemImportRow.error(recordLine, "Expected " + columns.size() + " values, but found "
+                    + values.size());
+        }
+
+        String available = getValue(values, "available");
+        if (!available.isEmpty() && !available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+            return ItemImportRow.error(recordLine, "Incorrect available value: " + available);
+        }
+
+        String requestId = getValue(values, REQUEST_ID_COLUMN);
+        long parsedRequestId;
+        try {
+            parsedRequestId = requestId.isEmpty() ? 0 : Long.parseLong(requestId);
+        } catch (NumberFormatException exception) {
+            return ItemImportRow.error(recordLine, "Incorrect requestId value: " + requestId);
+        }
+
+        // Пустые значения передаются как null, чтобы их отклонила проверка ограничений ItemDto.
+        ItemDto item = ItemDto.builder()
+                .name(emptyToNull(getValue(values, "name")))
+                .description(emptyToNull(getValue(values, "description")))
+                .available(available.isEmpty() ? null : Boolean.valueOf(available))
+                .requestId(parsedRequestId)
+                .build();
+
+        return ItemImportRow.of(recordLine, item);
+    }
+
+    private String getValue(List<String> values, String column) {
+        Integer index = columns.get(column);
+
+        return index == null ? "" : values.get(index).trim();
+    }
+
+    /**
+     * Читает одну запись, которая может занимать несколько строк файла.
+     * Возвращает null, если файл закончился.
+     */
+    private List<String> readRecord() throws IOException {
+        unterminatedQuote = false;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    unterminatedQuote = true;
+                    values.add(value.toString());
+                    return values;
+                }
+
+                if (c == '"') {
+                    // Удвоенная кавычка внутри значения означает саму кавычку, одиночная - конец значения.
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                value.append((char) c);
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') {
+                    line++;
+                }
+                values.add(value.toString());
+                return values;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Читает вещи из загружаемого файла по одной строке, не загружая файл в память целиком.
+ */
+public interface ItemImportReader {
+    MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+    MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
+    /**
+     * Возвращает следующую строку файла или null, если файл закончился.
+     */
+    ItemImportRow read() throws IOException;
+
+    static ItemImportReader of(String contentType, InputStream inputStream, ObjectMapper mapper) {
+        if (contentType == null) {
+            throw new BadRequestException("The import content type must be specified");
+        }
+
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.valueOf(contentType);
+        } catch (InvalidMediaTypeException exception) {
+            throw new BadRequestException("Unsupported import content type: " + contentType);
+        }
+        Charset charset = Optional.ofNullable(mediaType.getCharset()).orElse(StandardCharsets.UTF_8);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+
+        if (TEXT_CSV.includes(mediaType)) {
+            return new CsvItemImportReader(reader);
+        }
+
+        if (APPLICATION_NDJSON.includes(mediaType)) {
+            return new NdjsonItemImportReader(reader, mapper);
+        }
+
+        throw new BadRequestException("Unsupported import content type: " + contentType);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * Прочитанная строка файла импорта: вещь или причина, по которой строку не удалось разобрать.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemImportRow {
+
+    private final long line;
+    private final ItemDto item;
+    private final String error;
+
+    public static ItemImportRow of(long line, ItemDto item) {
+        return new ItemImportRow(line, item, null);
+    }
+
+    public static ItemImportRow error(long line, String error) {
+        return new ItemImportRow(line, null, error);
+    }
+}
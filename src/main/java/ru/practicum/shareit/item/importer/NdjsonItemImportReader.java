@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Читает вещи из NDJSON: каждая непустая строка - JSON-объект в формате ItemDto.
+ */
+class NdjsonItemImportReader implements ItemImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper mapper;
+    private long line;
+
+    NdjsonItemImportReader(BufferedReader reader, ObjectMapper mapper) {
+        this.reader = reader;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public ItemImportRow read() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+
+        if (text == null) {
+            return null;
+        }
+
+        try {
+            return ItemImportRow.of(line, mapper.readValue(text, ItemDto.class));
+        } catch (JsonProcessingException exception) {
+            return ItemImportRow.error(line, "Incorrect JSON: " + exception.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Сводка по бронированиям вещи, которая поддерживается при записи бронирований
+ * и читается вместо вычисления по всем бронированиям вещи.
+ */
+@Builder
+@Entity
+@Table(name = "item_booking_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingSummary {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // Количество и суммарная длительность подтвержденных бронирований.
+    @Column(name = "bookings_count", nullable = false)
+    private long bookingsCount;
+
+    @Column(name = "rental_seconds", nullable = false)
+    private long rentalSeconds;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    // Момент окончания следующего бронирования: после него последнее и следующее бронирования нужно вычислить заново.
+    // Пустое значение означает, что следующего бронирования нет и сводка актуальна до новой записи.
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    public boolean isActual(LocalDateTime now) {
+        return validUntil == null || validUntil.isAfter(now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ItemBookingSummary summary = (ItemBookingSummary) o;
+        return itemId.equals(summary.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(itemId);
+    }
+}
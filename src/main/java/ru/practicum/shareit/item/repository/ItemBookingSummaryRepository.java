@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Сводка поддерживается только сервисом бронирований, поэтому через REST она не публикуется.
+@RepositoryRestResource(exported = false)
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Query("select s.itemId from ItemBookingSummary s where s.validUntil < :now order by s.validUntil")
+    List<Long> findItemIdsByValidUntilBefore(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -1,15 +1,50 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchDocument;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @RepositoryRestResource
 public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item> {
 
-    List<Item> findByOwnerOrderById(User owner);
+    /**
+     * Вещи владельца загружаются вместе со всем, что нужно для их отображения
+     * (владелец, запрос, комментарии и их авторы), одним запросом.
+     */
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor", "comments", "comments.author"})
+    List<Item> findDistinctByOwnerOrderById(User owner);
+
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor", "comments", "comments.author"})
+    List<Item> findDistinctByIdIn(Collection<Long> ids);
+
+    List<ItemSearchDocument> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    /**
+     * Загружает вещь с блокировкой строки до конца транзакции. Используется, чтобы проверки
+     * пересечения бронирований одной вещи выполнялись последовательно.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Загружает вещи с блокировкой строк до конца транзакции. Строки блокируются в порядке идентификаторов,
+     * чтобы параллельные пакеты бронирований не блокировали друг друга.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
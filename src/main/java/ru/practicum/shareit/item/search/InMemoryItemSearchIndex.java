@@ -0,0 +1,222 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс по триграммам наименования и описания вещей.
+ * Кандидаты находятся пересечением списков вещей по всем триграммам искомой строки,
+ * после чего проверяются на точное вхождение подстроки, поэтому результат совпадает
+ * с поиском через LIKE '%text%'. Для страницы результатов ранжируются только лучшие
+ * from + size вещей, полная сортировка всех совпадений не выполняется.
+ */
+@Component
+public class InMemoryItemSearchIndex implements ItemSearchIndex {
+
+    static final int NGRAM_SIZE = 3;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Long itemId, String name, String description, Boolean available) {
+        Document document = new Document(normalize(name), normalize(description), Boolean.TRUE.equals(available));
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(itemId);
+            documents.put(itemId, document);
+            for (String ngram : document.ngrams()) {
+                postings.computeIfAbsent(ngram, key -> new HashSet<>()).add(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, Pageable pageable) {
+        String query = normalize(text);
+        if (query.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        long limit = pageable.getOffset() + pageable.getPageSize();
+
+        // В куче храним лучшие limit совпадений, на вершине - худшее из них.
+        PriorityQueue<Match> top = new PriorityQueue<>(Match.BY_RELEVANCE.reversed());
+        lock.readLock().lock();
+        try {
+            for (Long itemId : candidates(query)) {
+                Match match = documents.get(itemId).match(itemId, query);
+                if (match == null) {
+                    continue;
+                }
+                top.add(match);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(top);
+        matches.sort(Match.BY_RELEVANCE);
+
+        return matches.stream()
+                .skip(pageable.getOffset())
+                .map(Match::getItemId)
+                .collect(Collectors.toList());
+    }
+
+    private Collection<Long> candidates(String query) {
+        // Слишком короткую строку нельзя разбить на триграммы - проверим все вещи.
+        if (query.length() < NGRAM_SIZE) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String ngram : ngrams(query)) {
+            Set<Long> itemIds = postings.get(ngram);
+            if (itemIds == null) {
+                return Collections.emptySet();
+            }
+            lists.add(itemIds);
+        }
+
+        // Пересечение начинаем с самого короткого списка.
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+
+        return result;
+    }
+
+    private void removeDocument(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+
+        for (String ngram : document.ngrams()) {
+            Set<Long> itemIds = postings.get(ngram);
+            itemIds.remove(itemId);
+            if (itemIds.isEmpty()) {
+                postings.remove(ngram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> ngrams(String text) {
+        Set<String> ngrams = new HashSet<>();
+        for (int i = 0; i + NGRAM_SIZE <= text.length(); i++) {
+            ngrams.add(text.substring(i, i + NGRAM_SIZE));
+        }
+
+        return ngrams;
+    }
+
+    private static class Document {
+        private final String name;
+        private final String description;
+        private final boolean available;
+
+        Document(String name, String description, boolean available) {
+            this.name = name;
+            this.description = description;
+            this.available = available;
+        }
+
+        Set<String> ngrams() {
+            Set<String> ngrams = InMemoryItemSearchIndex.ngrams(name);
+            ngrams.addAll(InMemoryItemSearchIndex.ngrams(description));
+            return ngrams;
+        }
+
+        Match match(Long itemId, String query) {
+            if (!available) {
+                return null;
+            }
+
+            int nameFrequency = frequency(name, query);
+            int descriptionFrequency = frequency(description, query);
+            if (nameFrequency == 0 && descriptionFrequency == 0) {
+                return null;
+            }
+
+            return new Match(itemId, nameFrequency > 0, nameFrequency + descriptionFrequency);
+        }
+
+        private static int frequency(String text, String query) {
+            int count = 0;
+            for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + query.length())) {
+                count++;
+            }
+
+            return count;
+        }
+    }
+
+    private static class Match {
+        static final Comparator<Match> BY_RELEVANCE = Comparator
+                .comparing(Match::isNameMatch).reversed()
+                .thenComparing(Comparator.comparingInt(Match::getFrequency).reversed())
+                .thenComparing(Match::getItemId);
+
+        private final Long itemId;
+        private final boolean nameMatch;
+        private final int frequency;
+
+        Match(Long itemId, boolean nameMatch, int frequency) {
+            this.itemId = itemId;
+            this.nameMatch = nameMatch;
+            this.frequency = frequency;
+        }
+
+        Long getItemId() {
+            return itemId;
+        }
+
+        boolean isNameMatch() {
+            return nameMatch;
+        }
+
+        int getFrequency() {
+            return frequency;
+        }
+    }
+}
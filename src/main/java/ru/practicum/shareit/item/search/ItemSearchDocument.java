@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Проекция вещи, содержащая только поля, необходимые для построения поискового индекса.
+ */
+public interface ItemSearchDocument {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+}
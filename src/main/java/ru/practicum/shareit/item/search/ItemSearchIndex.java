@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Индекс для поиска доступных вещей по подстроке в наименовании или описании.
+ */
+public interface ItemSearchIndex {
+
+    void index(Long itemId, String name, String description, Boolean available);
+
+    default void index(Item item) {
+        index(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+    }
+
+    void remove(Long itemId);
+
+    void clear();
+
+    /**
+     * Возвращает страницу идентификаторов доступных вещей, в наименовании или описании которых
+     * встречается text без учета регистра. Вещи упорядочены по релевантности: сначала совпадения
+     * в наименовании, затем по числу вхождений text, затем по возрастанию id.
+     */
+    List<Long> search(String text, Pageable pageable);
+}
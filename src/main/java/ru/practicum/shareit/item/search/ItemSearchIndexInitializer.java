@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Заполняет поисковый индекс вещами из базы данных при старте приложения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndexInitializer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex searchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Start rebuilding item search index");
+
+        searchIndex.clear();
+
+        // Читаем вещи порциями по возрастанию id, продолжая с последнего прочитанного.
+        long lastId = 0;
+        long count = 0;
+        List<ItemSearchDocument> documents;
+        do {
+            documents = itemRepository.findByIdGreaterThanOrderById(lastId, PageRequest.of(0, BATCH_SIZE));
+            for (ItemSearchDocument document : documents) {
+                searchIndex.index(document.getId(), document.getName(),
+                        document.getDescription(), document.getAvailable());
+                lastId = document.getId();
+            }
+            count += documents.size();
+        } while (documents.size() == BATCH_SIZE);
+
+        log.info("Finish rebuilding item search index, {} items indexed", count);
+    }
+}
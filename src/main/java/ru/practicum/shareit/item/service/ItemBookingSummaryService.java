@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.ItemBookings;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface ItemBookingSummaryService {
+
+    /**
+     * Возвращает последнее и следующее бронирования, количество и среднюю длительность подтвержденных
+     * бронирований указанных вещей.
+     */
+    Map<Long, ItemBookings> getItemBookings(Collection<Long> itemIds);
+
+    void onBookingsCreated(Collection<Booking> bookings);
+
+    void onBookingApproved(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Учитывает бронирования, которые будут удалены каскадно вместе с пользователем.
+     * Вызывается до удаления, пока бронирования еще загружены.
+     */
+    void onBookingsDeleted(Collection<Booking> bookings);
+
+    /**
+     * Пересчитывает и сохраняет не больше limit сводок, у которых следующее бронирование закончилось до now.
+     * Возвращает число найденных устаревших сводок.
+     */
+    int refreshStale(LocalDateTime now, int limit);
+}
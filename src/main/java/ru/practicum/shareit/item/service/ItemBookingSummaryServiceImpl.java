@@ -0,0 +1,264 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    public final ItemBookingSummaryRepository summaryRepository;
+    public final BookingRepository bookingRepository;
+    public final ItemRepository itemRepository;
+
+    @Override
+    public Map<Long, ItemBookings> getItemBookings(Collection<Long> itemIds) {
+        Map<Long, ItemBookings> itemBookings = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return itemBookings;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+
+        // Сводки новых вещей и сводки, у которых следующее бронирование уже закончилось, пересчитаем в памяти.
+        // Чтение не блокирует вещи и не открывает вторую транзакцию: сохраненные сводки обновят запись
+        // бронирований вещи или ItemBookingSummaryRefreshJob.
+        List<Long> staleItemIds = itemIds.stream()
+                .distinct()
+                .filter(itemId -> !summaries.containsKey(itemId) || !summaries.get(itemId).isActual(now))
+                .collect(Collectors.toList());
+        if (!staleItemIds.isEmpty()) {
+            Map<Long, ItemBookingSummary> computed = new HashMap<>();
+            staleItemIds.forEach(itemId -> computed.put(itemId, copyOf(summaries.get(itemId), itemId)));
+            compute(computed, staleItemIds.stream()
+                    .filter(itemId -> !summaries.containsKey(itemId))
+                    .collect(Collectors.toList()), now);
+            summaries.putAll(computed);
+        }
+
+        // Последнее и следующее бронирования всех вещей получим одним запросом по первичному ключу.
+        Set<Long> bookingIds = new HashSet<>();
+        summaries.values().forEach(summary -> {
+            bookingIds.add(summary.getLastBookingId());
+            bookingIds.add(summary.getNextBookingId());
+        });
+        bookingIds.remove(null);
+
+        Map<Long, BookingDto.Nested> bookings = new HashMap<>();
+        if (!bookingIds.isEmpty()) {
+            bookingRepository.findNestedByIdIn(bookingIds).forEach(booking -> bookings.put(booking.getId(), booking));
+        }
+
+        summaries.values().forEach(summary -> itemBookings.put(summary.getItemId(), toItemBookings(summary, bookings)));
+
+        return itemBookings;
+    }
+
+    @Override
+    @Transactional
+    public void onBookingsCreated(Collection<Booking> bookings) {
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        if (itemIds.isEmpty()) {
+            return;
+        }
+
+        // Вещи уже заблокированы сервисом бронирований, поэтому отсутствующие и устаревшие сводки
+        // пересчитываются и сохраняются здесь же, вместе с новыми бронированиями.
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<Long> staleItemIds = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId) || !summaries.get(itemId).isActual(now))
+                .collect(Collectors.toList());
+        if (!staleItemIds.isEmpty()) {
+            rebuild(staleItemIds, now);
+        }
+
+        for (Booking booking : bookings) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (summary == null || staleItemIds.contains(summary.getItemId())) {
+                continue;
+            }
+
+            // Новое бронирование заканчивается в будущем, поэтому может стать только следующим.
+            if (summary.getValidUntil() == null || booking.getEnd().isBefore(summary.getValidUntil())) {
+                summary.setNextBookingId(booking.getId());
+                summary.setValidUntil(booking.getEnd());
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public void onBookingApproved(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Optional<ItemBookingSummary> summary = summaryRepository.findById(itemId);
+        if (summary.isEmpty()) {
+            // Вещь заблокирована сервисом бронирований, а статус уже изменен: новая сводка учтет это бронирование.
+            rebuild(List.of(itemId), LocalDateTime.now());
+            return;
+        }
+
+        summary.get().setBookingsCount(summary.get().getBookingsCount() + 1);
+        summary.get().setRentalSeconds(summary.get().getRentalSeconds()
+                + getRentalSeconds(start, end));
+    }
+
+    @Override
+    @Transactional
+    public void onBookingsDeleted(Collection<Booking> bookings) {
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        if (itemIds.isEmpty()) {
+            return;
+        }
+
+        // Заблокируем вещи так же, как при записи бронирований, чтобы не потерять параллельные изменения счетчиков.
+        itemRepository.findAllByIdForUpdate(itemIds);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        for (Booking booking : bookings) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (summary == null) {
+                continue;
+            }
+
+            if (booking.getStatus() == BookingStatus.APPROVED) {
+                summary.setBookingsCount(summary.getBookingsCount() - 1);
+                summary.setRentalSeconds(summary.getRentalSeconds()
+                        - getRentalSeconds(booking.getStart(), booking.getEnd()));
+            }
+            // Бронирования еще не удалены, поэтому вычислить новые указатели здесь нельзя:
+            // сводка помечается устаревшей и будет пересчитана при чтении и сохранена позже.
+            if (booking.getId().equals(summary.getLastBookingId())
+                    || booking.getId().equals(summary.getNextBookingId())) {
+                summary.setValidUntil(now);
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public int refreshStale(LocalDateTime now, int limit) {
+        List<Long> itemIds = summaryRepository.findItemIdsByValidUntilBefore(now, PageRequest.of(0, limit));
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+
+        // Заблокируем вещи так же, как при записи бронирований, чтобы пересчет не затер параллельные изменения.
+        List<Long> lockedItemIds = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        if (!lockedItemIds.isEmpty()) {
+            rebuild(lockedItemIds, now);
+        }
+
+        return itemIds.size();
+    }
+
+    /**
+     * Пересчитывает и сохраняет сводки вещей. Вызывающий код должен держать блокировку этих вещей.
+     */
+    private void rebuild(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<Long> newItemIds = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId))
+                .collect(Collectors.toList());
+        newItemIds.forEach(itemId -> summaries.put(itemId, ItemBookingSummary.builder()
+                .itemId(itemId)
+                .build()));
+
+        compute(summaries, newItemIds, now);
+        summaryRepository.saveAll(summaries.values());
+    }
+
+    /**
+     * Вычисляет последнее и следующее бронирования сводок, а для новых вещей - еще и количество
+     * и длительность подтвержденных бронирований.
+     */
+    private void compute(Map<Long, ItemBookingSummary> summaries, List<Long> newItemIds, LocalDateTime now) {
+        if (!newItemIds.isEmpty()) {
+            for (BookingDto.Nested booking : bookingRepository.findByItemIdsAndStatus(newItemIds,
+                    BookingStatus.APPROVED)) {
+                ItemBookingSummary summary = summaries.get(booking.getItemId());
+                summary.setBookingsCount(summary.getBookingsCount() + 1);
+                summary.setRentalSeconds(summary.getRentalSeconds()
+                        + getRentalSeconds(booking.getStart(), booking.getEnd()));
+            }
+        }
+
+        // Последнее и следующее бронирования всех вещей вычислим одним запросом.
+        summaries.values().forEach(summary -> {
+            summary.setLastBookingId(null);
+            summary.setNextBookingId(null);
+            summary.setValidUntil(null);
+        });
+        for (BookingDto.Nested booking : bookingRepository.findLastAndNextBookings(summaries.keySet(), now)) {
+            ItemBookingSummary summary = summaries.get(booking.getItemId());
+            if (booking.getEnd().isBefore(now)) {
+                if (summary.getLastBookingId() == null) {
+                    summary.setLastBookingId(booking.getId());
+                }
+            } else if (summary.getNextBookingId() == null) {
+                summary.setNextBookingId(booking.getId());
+                summary.setValidUntil(booking.getEnd());
+            }
+        }
+    }
+
+    // Копия не связана с контекстом постоянства, поэтому ее изменения не сохраняются в транзакции чтения.
+    private static ItemBookingSummary copyOf(ItemBookingSummary summary, Long itemId) {
+        if (summary == null) {
+            return ItemBookingSummary.builder()
+                    .itemId(itemId)
+                    .build();
+        }
+
+        return ItemBookingSummary.builder()
+                .itemId(itemId)
+                .bookingsCount(summary.getBookingsCount())
+                .rentalSeconds(summary.getRentalSeconds())
+                .build();
+    }
+
+    private static ItemBookings toItemBookings(ItemBookingSummary summary, Map<Long, BookingDto.Nested> bookings) {
+        ItemBookings itemBookings = ItemBookings.builder()
+                .lastBooking(bookings.get(summary.getLastBookingId()))
+                .nextBooking(bookings.get(summary.getNextBookingId()))
+                .bookingsCount(summary.getBookingsCount())
+                .build();
+
+        if (summary.getBookingsCount() > 0) {
+            itemBookings.setAverageRentalMinutes(summary.getRentalSeconds() / summary.getBookingsCount() / 60);
+        }
+
+        return itemBookings;
+    }
+
+    private static long getRentalSeconds(LocalDateTime start, LocalDateTime end) {
+        return Duration.between(start, end).getSeconds();
+    }
+}
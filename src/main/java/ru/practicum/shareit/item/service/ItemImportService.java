@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemImportProgressDto;
+import ru.practicum.shareit.item.importer.ItemImportReader;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+public interface ItemImportService {
+
+    /**
+     * Сохраняет вещи из файла порциями, каждая порция - в отдельной транзакции.
+     * После фиксации каждой порции передает ход импорта и ошибки строк этой порции в progressConsumer.
+     */
+    void importItems(Long ownerId, ItemImportReader reader, Consumer<ItemImportProgressDto> progressConsumer)
+            throws IOException;
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportProgressDto;
+import ru.practicum.shareit.item.importer.ItemImportReader;
+import ru.practicum.shareit.item.importer.ItemImportRow;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.request.service.RequestSuggestionService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт вещей без общей транзакции: файл читается потоком, а вещи сохраняются порциями
+ * по BATCH_SIZE в отдельных транзакциях, поэтому ни файл, ни контекст персистентности не растут.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportServiceImpl implements ItemImportService {
+    static final int BATCH_SIZE = 1000;
+
+    public final ItemRepository itemRepository;
+    public final UserService userService;
+    public final RequestService requestService;
+    public final ItemSearchIndex searchIndex;
+    public final RequestSuggestionService suggestionService;
+    public final Validator validator;
+    public final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void importItems(Long ownerId, ItemImportReader reader, Consumer<ItemImportProgressDto> progressConsumer)
+            throws IOException {
+        // Владелец и запросы загружаются один раз на весь импорт, а не для каждой вещи.
+        User owner = userService.getById(ownerId);
+        Map<Long, Optional<ItemRequest>> requests = new HashMap<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long processed = 0;
+        long saved = 0;
+        List<ItemImportRow> batch = new ArrayList<>(BATCH_SIZE);
+        ItemImportRow row = reader.read();
+        while (row != null) {
+            batch.add(row);
+            row = reader.read();
+
+            if (batch.size() == BATCH_SIZE || row == null) {
+                List<ItemImportErrorDto> errors = saveBatch(owner, batch, requests, transaction);
+                processed += batch.size();
+                saved += batch.size() - errors.size();
+                batch.clear();
+
+                log.debug("Imported {} of {} processed items for owner with id {}", saved, processed, ownerId);
+                progressConsumer.accept(ItemImportProgressDto.builder()
+                        .processed(processed)
+                        .saved(saved)
+                        .failed(processed - saved)
+                        .errors(errors)
+                        .build());
+            }
+        }
+
+        // Для пустого файла сообщим итог, чтобы клиент всегда получал хотя бы одно сообщение.
+        if (processed == 0) {
+            progressConsumer.accept(ItemImportProgressDto.builder()
+                    .processed(0L)
+                    .saved(0L)
+                    .failed(0L)
+                    .errors(List.of())
+                    .build());
+        }
+    }
+
+    private List<ItemImportErrorDto> saveBatch(User owner,
+                                               List<ItemImportRow> batch,
+                                               Map<Long, Optional<ItemRequest>> requests,
+                                               TransactionTemplate transaction) {
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        loadRequests(batch, requests);
+
+        // Строки с ошибками разбора, нарушением ограничений ItemDto или несуществующим запросом не сохраняются.
+        List<Item> items = new ArrayList<>(batch.size());
+        List<ItemImportRow> itemRows = new ArrayList<>(batch.size());
+        for (ItemImportRow row : batch) {
+            String error = getRowError(row, requests);
+            if (error != null) {
+                errors.add(new ItemImportErrorDto(row.getLine(), error));
+                continue;
+            }
+
+            ItemDto itemDto = row.getItem();
+            Item item = ItemMapper.toItem(itemDto);
+            item.setId(null);
+            item.setOwner(owner);
+            if (itemDto.getRequestId() > 0) {
+                item.setRequest(requests.get(itemDto.getRequestId()).orElseThrow());
+            }
+            items.add(item);
+            itemRows.add(row);
+        }
+
+        if (items.isEmpty()) {
+            return errors;
+        }
+
+        try {
+            transaction.executeWithoutResult(status -> {
+                List<Item> savedItems = itemRepository.saveAll(items);
+                suggestionService.onItemsSaved(savedItems);
+                TransactionHooks.afterCommit(() -> savedItems.forEach(searchIndex::index));
+            });
+        } catch (DataAccessException exception) {
+            // Порция откатывается целиком: сообщим об ошибке для каждой ее строки.
+            log.error("Failed to import a batch of {} items: {}", items.size(), exception.getMessage(), exception);
+            itemRows.forEach(row -> errors.add(new ItemImportErrorDto(row.getLine(),
+                    "Failed to save the item: " + exception.getMostSpecificCause().getMessage())));
+            errors.sort(Comparator.comparing(ItemImportErrorDto::getLine));
+        }
+
+        return errors;
+    }
+
+    private void loadRequests(List<ItemImportRow> batch, Map<Long, Optional<ItemRequest>> requests) {
+        Set<Long> requestIds = batch.stream()
+                .map(ItemImportRow::getItem)
+                .filter(Objects::nonNull)
+                .map(ItemDto::getRequestId)
+                .filter(requestId -> requestId > 0 && !requests.containsKey(requestId))
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return;
+        }
+
+        // Отсутствующие запросы тоже запоминаются, чтобы не искать их повторно в следующих порциях.
+        requestIds.forEach(requestId -> requests.put(requestId, Optional.empty()));
+        requestService.getAllById(requestIds)
+                .forEach(request -> requests.put(request.getId(), Optional.of(request)));
+    }
+
+    private String getRowError(ItemImportRow row, Map<Long, Optional<ItemRequest>> requests) {
+        if (row.getError() != null) {
+            return row.getError();
+        }
+
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(row.getItem());
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        long requestId = row.getItem().getRequestId();
+        if (requestId > 0 && requests.get(requestId).isEmpty()) {
+            return new NotFoundException(ItemRequest.class.getSimpleName(), requestId).getMessage();
+        }
+
+        return null;
+    }
+}
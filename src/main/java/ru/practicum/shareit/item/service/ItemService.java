@@ -1,9 +1,13 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.ItemSearchRequestParam;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
 
@@ -11,11 +15,17 @@ public interface ItemService {
 
     Item getById(Long itemId);
 
+    Item getByIdForUpdate(Long itemId);
+
+    List<Item> getAllByIdForUpdate(Collection<Long> itemIds);
+
     Item update(Long ownerId, Long itemId, Long requestId, Item item);
 
     List<Item> getAll(Long ownerId);
 
-    List<Item> findByText(String text);
+    List<Item> findByText(ItemSearchRequestParam params);
 
     Comment saveComment(Comment comment, Long authorId, Long itemId);
+
+    Map<Long, ItemBookings> getLastAndNextBookings(Collection<Item> items, Long userId);
 }
\ No newline at end of file
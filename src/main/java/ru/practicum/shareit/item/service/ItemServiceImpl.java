@@ -1,42 +1,49 @@
 package ru.practicum.shareit.item.service;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.ItemSearchRequestParam;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.request.service.RequestSuggestionService;
+import ru.practicum.shareit.retry.RetryOnConflict;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
-
     public final ItemRepository itemRepository;
     public final CommentRepository commentRepository;
+    public final BookingRepository bookingRepository;
+    public final ItemBookingSummaryService summaryService;
     public final UserService userService;
     public final RequestService requestService;
+    public final ItemSearchIndex searchIndex;
+    public final RequestSuggestionService suggestionService;
 
     @Override
     @Transactional
     public Item save(Long ownerId, Item item, Long requestId) {
-        log.info("Start saving item {}", item);
-
         if (requestId != null && requestId > 0) {
             ItemRequest itemRequest = requestService.getById(requestId);
             item.setRequest(itemRequest);
@@ -46,29 +53,39 @@ public class ItemServiceImpl implements ItemService {
 
         item.setOwner(owner);
         Item newItem = itemRepository.save(item);
-
-        log.info("Finish saving user {}", item);
+        suggestionService.onItemsSaved(List.of(newItem));
+        TransactionHooks.afterCommit(() -> searchIndex.index(newItem));
 
         return newItem;
     }
 
     @Override
     public Item getById(Long itemId) {
-        log.info("Start getting item by id {}", itemId);
-
         Item foundedItem = itemRepository.findById(itemId)
                         .orElseThrow(() -> new NotFoundException(Item.class.getSimpleName(), itemId));
 
-        log.info("Finish getting item by id {}", itemId);
+        return foundedItem;
+    }
+
+    @Override
+    @Transactional
+    public Item getByIdForUpdate(Long itemId) {
+        Item foundedItem = itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException(Item.class.getSimpleName(), itemId));
 
         return foundedItem;
     }
 
     @Override
     @Transactional
-    public Item update(Long ownerId, Long itemId, Long requestId, Item item) {
-        log.info("Start updating item by id {} for owner with id {}", itemId, ownerId);
+    public List<Item> getAllByIdForUpdate(Collection<Long> itemIds) {
+        return itemRepository.findAllByIdForUpdate(itemIds);
+    }
 
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Item update(Long ownerId, Long itemId, Long requestId, Item item) {
         User currentOwner = userService.getById(ownerId);
         Item itemForUpdate = getById(itemId);
 
@@ -101,67 +118,87 @@ public class ItemServiceImpl implements ItemService {
 
         // Запишем обновленную вещь.
         Item updatedItem = itemRepository.save(itemForUpdate);
-
-        log.info("Finish updating item by id {} for owner with id {}", itemId, ownerId);
+        suggestionService.onItemUpdated(updatedItem);
+        TransactionHooks.afterCommit(() -> searchIndex.index(updatedItem));
 
         return updatedItem;
     }
 
     @Override
     public List<Item> getAll(Long ownerId) {
-        log.info("Start getting all items for owner with id {}", ownerId);
-
         User owner = userService.getById(ownerId);
-        List<Item> items = itemRepository.findByOwnerOrderById(owner);
-
-        log.info("Finish getting all items for owner with id {}", ownerId);
+        List<Item> items = itemRepository.findDistinctByOwnerOrderById(owner);
 
         return items;
     }
 
     @Override
-    public List<Item> findByText(String text) {
-        log.info("Start getting all items with text: {}", text);
+    public List<Item> findByText(ItemSearchRequestParam params) {
+        String text = params.getText();
+        if (params.getFrom() < 0 || params.getSize() < 1) {
+            throw new BadRequestException("Incorrect paging parameters: from "
+                    + params.getFrom()
+                    + ", size "
+                    + params.getSize());
+        }
 
         if (text.isBlank()) {
             return new ArrayList<>();
         }
 
-        // Сформируем условия к запросу.
-        BooleanExpression byName = QItem.item.name.containsIgnoreCase(text);
-        BooleanExpression byDescription = QItem.item.description.containsIgnoreCase(text);
-        BooleanExpression byAvailable = QItem.item.available.eq(true);
-        // Выполним запрос.
-        Iterable<Item> foundItems = itemRepository.findAll(byAvailable.and(byName.or(byDescription)));
-
-        // Сформируем коллекцию.
-        List<Item> items = new ArrayList<>();
-        foundItems.forEach(items::add);
-
-        log.info("Finish getting all items with text: {}", text);
-
-        return items;
+        // Найдем страницу наиболее релевантных вещей в поисковом индексе и загрузим их одним запросом.
+        MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), Sort.unsorted());
+        while (true) {
+            List<Long> itemIds = searchIndex.search(text, pageRequest);
+            Map<Long, Item> foundItems = itemRepository.findDistinctByIdIn(itemIds).stream()
+                    .collect(Collectors.toMap(Item::getId, item -> item));
+
+            // Вещи, которых уже нет в базе данных, уберем из индекса и повторим поиск, чтобы они
+            // не занимали места на странице. Каждый повтор уменьшает индекс, поэтому цикл конечен.
+            List<Long> deletedItemIds = itemIds.stream()
+                    .filter(itemId -> !foundItems.containsKey(itemId))
+                    .collect(Collectors.toList());
+            if (deletedItemIds.isEmpty()) {
+                // Сохраним порядок, заданный ранжированием.
+                return itemIds.stream()
+                        .map(foundItems::get)
+                        .collect(Collectors.toList());
+            }
+            deletedItemIds.forEach(searchIndex::remove);
+        }
     }
 
     @Override
     @Transactional
     public Comment saveComment(Comment comment, Long authorId, Long itemId) {
-
         Item item = getById(itemId);
-        // Проверим, заказывал ли данный пользователь текущую вещь.
-        boolean isItBooker = item.getBookings().stream()
-                .filter(booking -> booking.getBooker().getId().equals(authorId))
-                .anyMatch(booking -> booking.getStart().isBefore(LocalDateTime.now()));
+        // Проверим, заказывал ли данный пользователь текущую вещь. Бронирования вещи не загружаются:
+        // запрос проверяет существование подтвержденного бронирования по индексу.
+        LocalDateTime now = LocalDateTime.now();
+        boolean isItBooker = bookingRepository.existsByBookerIdAndItemIdAndStatusAndStartBefore(authorId, itemId,
+                BookingStatus.APPROVED, now);
         if (!isItBooker) {
             throw new BadRequestException("Leave a comment on the product can only be the customer of the product");
         }
 
         comment.setItem(item);
-        comment.setCreated(LocalDateTime.now());
+        comment.setCreated(now);
 
         User author = userService.getById(authorId);
         comment.setAuthor(author);
 
         return commentRepository.save(comment);
     }
+
+    @Override
+    public Map<Long, ItemBookings> getLastAndNextBookings(Collection<Item> items, Long userId) {
+        // Последнее и следующее бронирование показываются только владельцу вещи.
+        List<Long> itemIds = items.stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        // Сводки по бронированиям поддерживаются при записи, поэтому бронирования вещей не перебираются.
+        return summaryService.getItemBookings(itemIds);
+    }
 }
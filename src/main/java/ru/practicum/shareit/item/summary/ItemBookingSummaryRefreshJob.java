@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.summary;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+
+import java.time.LocalDateTime;
+
+/**
+ * Периодически сохраняет пересчитанные сводки бронирований вещей, у которых следующее бронирование закончилось.
+ * Чтение такие сводки только пересчитывает в памяти, не блокируя вещи, поэтому без этой задачи сводки вещей,
+ * которые давно не бронировали, пересчитывались бы при каждом чтении. Каждая порция из batchSize сводок
+ * пересчитывается в своей транзакции, поэтому блокировки вещей держатся недолго.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.items.summary-refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ItemBookingSummaryRefreshJob {
+
+    private final ItemBookingSummaryService summaryService;
+    private final int batchSize;
+    private final Counter refreshedCounter;
+    private final Timer timer;
+
+    public ItemBookingSummaryRefreshJob(ItemBookingSummaryService summaryService,
+                                        MeterRegistry registry,
+                                        @Value("${shareit.items.summary-refresh.batch-size:500}") int batchSize) {
+        this.summaryService = summaryService;
+        this.batchSize = batchSize;
+        this.refreshedCounter = Counter.builder("shareit.items.summaries.refreshed")
+                .description("Item booking summaries rebuilt after their next booking finished")
+                .register(registry);
+        this.timer = Timer.builder("shareit.items.summary-refresh")
+                .description("Item booking summary refresh run time")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.items.summary-refresh.interval:PT1M}",
+            initialDelayString = "${shareit.items.summary-refresh.interval:PT1M}")
+    public void run() {
+        timer.record(() -> refresh(LocalDateTime.now()));
+    }
+
+    /**
+     * Пересчитывает все сводки, устаревшие к моменту now. Возвращает число пересчитанных сводок.
+     */
+    public long refresh(LocalDateTime now) {
+        long count = 0;
+        int refreshed;
+        do {
+            // Пересчитанная сводка актуальна после now, поэтому повторно в выборку не попадает.
+            refreshed = summaryService.refreshStale(now, batchSize);
+            count += refreshed;
+            refreshedCounter.increment(refreshed);
+        } while (refreshed == batchSize);
+
+        if (count > 0) {
+            log.info("{} item booking summaries stale at {} have been refreshed", count, now);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import org.hibernate.SessionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+@Configuration
+public class HibernateMetricsConfig {
+
+    /**
+     * Публикует статистику Hibernate, в том числе попадания и промахи по регионам кэша второго уровня.
+     * Автоконфигурация Spring Boot для этого требует модуль hibernate-micrometer, поэтому связка из Micrometer
+     * регистрируется явно.
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory",
+                List.of());
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Глобальный реестр объединяет все реестры приложения, включая Prometheus.
+        registry.addInterceptor(new SqlStatementMetricsInterceptor(Metrics.globalRegistry));
+    }
+}
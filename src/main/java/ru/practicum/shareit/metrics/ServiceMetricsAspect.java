@@ -0,0 +1,49 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.tracing.Span;
+import ru.practicum.shareit.tracing.Tracer;
+
+/**
+ * Измеряет время выполнения публичных методов сервисов.
+ * Таймер shareit.service размечается классом, методом и типом выброшенного исключения,
+ * каждый вызов также записывается как span текущей трассировки.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Tracer tracer;
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = joinPoint.getTarget().getClass().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try (Span span = tracer.start(className + "." + methodName)) {
+            try {
+                return joinPoint.proceed();
+            } catch (Throwable throwable) {
+                exception = throwable.getClass().getSimpleName();
+                span.setError(throwable);
+                throw throwable;
+            }
+        } finally {
+            sample.stop(Timer.builder("shareit.service")
+                    .description("Service method execution time")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
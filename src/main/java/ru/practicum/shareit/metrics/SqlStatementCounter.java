@@ -0,0 +1,28 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы, подготовленные Hibernate в текущем потоке.
+ * Подключается через свойство hibernate.session_factory.statement_inspector, счетчик сбрасывается
+ * в начале обработки каждого HTTP-запроса.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Integer> COUNT = ThreadLocal.withInitial(() -> 0);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.set(COUNT.get() + 1);
+
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.remove();
+    }
+
+    public static int get() {
+        return COUNT.get();
+    }
+}
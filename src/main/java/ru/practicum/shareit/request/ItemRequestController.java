@@ -2,13 +2,23 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.request.service.RequestSuggestionService;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,53 +28,97 @@ import java.util.stream.Collectors;
 public class ItemRequestController {
 
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
 
     public final RequestService service;
+    public final ItemService itemService;
+    public final RequestSuggestionService suggestionService;
 
     @PostMapping
     public ItemRequestDto saveNewRequest(@RequestHeader(HEADER_USER_ID) Long ownerId,
                                          @Valid @RequestBody ItemRequestDto itemRequestDto) {
 
-        log.info("Handling a request to create a new request for user with id {}", ownerId);
+        log.debug("Handling a request to create a new request for user with id {}", ownerId);
 
         ItemRequest request = ItemRequestMapper.toItemRequest(itemRequestDto);
         ItemRequest savedRequest = service.save(ownerId, request);
 
-        return ItemRequestMapper.toItemRequestDto(savedRequest, ownerId);
+        // У нового запроса еще нет вещей.
+        return ItemRequestMapper.toItemRequestDto(savedRequest, Map.of());
     }
 
     @GetMapping
     public List<ItemRequestDto> getAllUsersRequests(@RequestHeader(HEADER_USER_ID) Long userId) {
-        log.info("Handling get all requests for user with id {}", userId);
+        log.debug("Handling get all requests for user with id {}", userId);
 
-        return service.getAllUsersRequests(userId).stream()
-                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest, userId))
-                .collect(Collectors.toList());
+        return toItemRequestDtos(service.getAllUsersRequests(userId), userId);
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@RequestHeader(HEADER_USER_ID) Long userId,
                                          @PathVariable Long requestId) {
-        log.info("Handling get request by id {}", requestId);
+        log.debug("Handling get request by id {}", requestId);
 
         ItemRequest itemRequest = service.getById(requestId, userId);
 
-        return ItemRequestMapper.toItemRequestDto(itemRequest, userId);
+        return toItemRequestDtos(List.of(itemRequest), userId).get(0);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAll(@RequestHeader(HEADER_USER_ID) Long userId,
-                                       @RequestParam(defaultValue = "0") Integer from,
-                                       @RequestParam(defaultValue = "30") Integer size) {
-        log.info("Handling get all requests");
+    public ResponseEntity<List<ItemRequestDto>> getAll(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                       @RequestParam(defaultValue = "0") Integer from,
+                                                       @RequestParam(defaultValue = "30") Integer size,
+                                                       @RequestParam(required = false) String cursor) {
+        log.debug("Handling get all requests");
+
+        ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(from)
+                .size(size)
+                .cursor(cursor)
+                .build();
+        Slice<ItemRequest> requests = service.getAll(userId, params);
+        List<ItemRequestDto> requestDtos = toItemRequestDtos(requests.getContent(), userId);
+
+        // Курсор следующей страницы передается, только если она есть.
+        if (!requests.hasNext()) {
+            return ResponseEntity.ok(requestDtos);
+        }
+
+        ItemRequest last = requests.getContent().get(requests.getNumberOfElements() - 1);
+        String nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+
+        return ResponseEntity.ok()
+                .header(HEADER_NEXT_CURSOR, nextCursor)
+                .body(requestDtos);
+    }
+
+    @GetMapping("/{requestId}/suggestions")
+    public List<ItemDto.Nested> getSuggestions(@RequestHeader(HEADER_USER_ID) Long userId,
+                                               @PathVariable Long requestId,
+                                               @RequestParam(defaultValue = "0") Integer from,
+                                               @RequestParam(defaultValue = "30") Integer size) {
+        log.debug("Handling get suggested items for request with id {}", requestId);
 
         ItemRequestRequestParam params = ItemRequestRequestParam.builder()
                 .from(from)
                 .size(size)
                 .build();
 
-        return service.getAll(userId, params).stream()
-                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest, userId))
+        // Последнее и следующее бронирования подобранных вещей автору запроса не показываются.
+        return suggestionService.getSuggestedItems(requestId, userId, params).stream()
+                .map(item -> ItemMapper.toItemDtoNested(item, null))
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests, Long userId) {
+        // Последнее и следующее бронирования видит только владелец вещи, получим их для вещей всех запросов сразу.
+        List<Item> items = itemRequests.stream()
+                .flatMap(itemRequest -> itemRequest.getItems().stream())
+                .collect(Collectors.toList());
+        Map<Long, ItemBookings> itemBookings = itemService.getLastAndNextBookings(items, userId);
+
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest, itemBookings))
                 .collect(Collectors.toList());
     }
 
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.request;
 
+import ru.practicum.shareit.item.ItemBookings;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserMapper;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -19,9 +21,9 @@ public class ItemRequestMapper {
                 .build();
     }
 
-    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, Long userId) {
+    public static ItemRequestDto toItemRequestDto(ItemRequest itemRequest, Map<Long, ItemBookings> itemBookings) {
         Set<ItemDto.Nested> items = itemRequest.getItems().stream()
-                .map(item -> ItemMapper.toItemDtoNested(item, userId))
+                .map(item -> ItemMapper.toItemDtoNested(item, itemBookings.get(item.getId())))
                 .collect(Collectors.toSet());
         return ItemRequestDto.builder()
                 .id(itemRequest.getId())
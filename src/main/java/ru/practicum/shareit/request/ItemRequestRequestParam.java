@@ -11,4 +11,5 @@ import lombok.*;
 public class ItemRequestRequestParam {
     private Integer from;
     private Integer size;
+    private String cursor;
 }
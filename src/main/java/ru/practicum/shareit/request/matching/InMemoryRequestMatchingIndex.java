@@ -0,0 +1,137 @@
+package ru.practicum.shareit.request.matching;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс по словам описаний открытых запросов. Описание разбивается на слова,
+ * короткие служебные слова отбрасываются, у остальных отсекается окончание, чтобы "дрель", "дрели"
+ * и "дрелью" совпадали. Для вещи перебираются только списки запросов по словам вещи,
+ * поэтому время подбора не зависит от общего числа открытых запросов.
+ */
+@Component
+public class InMemoryRequestMatchingIndex implements RequestMatchingIndex {
+
+    static final int MIN_WORD_LENGTH = 4;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Long requestId, Long requestorId, String description) {
+        Document document = new Document(requestorId, stems(description));
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(requestId);
+            documents.put(requestId, document);
+            for (String stem : document.stems) {
+                postings.computeIfAbsent(stem, key -> new HashSet<>()).add(requestId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long requestId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(requestId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RequestMatch> match(String name, String description, Long ownerId, int limit) {
+        Set<String> itemStems = stems(name);
+        itemStems.addAll(stems(description));
+
+        // Посчитаем для каждого запроса число слов, общих с вещью.
+        Map<Long, Integer> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String stem : itemStems) {
+                for (Long requestId : postings.getOrDefault(stem, Collections.emptySet())) {
+                    if (!documents.get(requestId).requestorId.equals(ownerId)) {
+                        scores.merge(requestId, 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new RequestMatch(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(RequestMatch::getScore).reversed()
+                        .thenComparing(RequestMatch::getRequestId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private void removeDocument(Long requestId) {
+        Document document = documents.remove(requestId);
+        if (document == null) {
+            return;
+        }
+
+        for (String stem : document.stems) {
+            Set<Long> requestIds = postings.get(stem);
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                postings.remove(stem);
+            }
+        }
+    }
+
+    static Set<String> stems(String text) {
+        Set<String> stems = new HashSet<>();
+        if (text == null) {
+            return stems;
+        }
+
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                stems.add(stem(word));
+            }
+        }
+
+        return stems;
+    }
+
+    private static String stem(String word) {
+        // Грубое отсечение окончания: у длинных слов два последних символа, у коротких - один.
+        return word.substring(0, word.length() - (word.length() > 5 ? 2 : 1));
+    }
+
+    private static class Document {
+        private final Long requestorId;
+        private final Set<String> stems;
+
+        Document(Long requestorId, Set<String> stems) {
+            this.requestorId = requestorId;
+            this.stems = stems;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Запрос, подходящий вещи, и число слов его описания, найденных в вещи.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class RequestMatch {
+    private final Long requestId;
+    private final int score;
+}
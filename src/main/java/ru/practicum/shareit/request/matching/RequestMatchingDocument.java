@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request.matching;
+
+/**
+ * Проекция запроса, содержащая только поля, необходимые для построения индекса подбора.
+ */
+public interface RequestMatchingDocument {
+
+    Long getId();
+
+    Long getRequestorId();
+
+    String getDescription();
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.request.matching;
+
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+/**
+ * Индекс открытых запросов вещей для подбора запросов, которым подходит новая или измененная вещь.
+ * Открытым считается запрос, на который еще не создано ни одной вещи.
+ */
+public interface RequestMatchingIndex {
+
+    void index(Long requestId, Long requestorId, String description);
+
+    default void index(ItemRequest request) {
+        index(request.getId(), request.getRequestor().getId(), request.getDescription());
+    }
+
+    void remove(Long requestId);
+
+    void clear();
+
+    /**
+     * Возвращает не более limit открытых запросов, в описании которых встречаются слова из наименования
+     * или описания вещи. Запросы владельца вещи не возвращаются. Запросы упорядочены по числу совпавших слов,
+     * затем по возрастанию id.
+     */
+    List<RequestMatch> match(String name, String description, Long ownerId, int limit);
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import java.util.List;
+
+/**
+ * Заполняет индекс подбора открытыми запросами из базы данных при старте приложения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestMatchingIndexInitializer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final RequestRepository requestRepository;
+    private final RequestMatchingIndex matchingIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Start rebuilding request matching index");
+
+        matchingIndex.clear();
+
+        // Читаем запросы порциями по возрастанию id, продолжая с последнего прочитанного.
+        long lastId = 0;
+        long count = 0;
+        List<RequestMatchingDocument> documents;
+        do {
+            documents = requestRepository.findOpenByIdGreaterThan(lastId, PageRequest.of(0, BATCH_SIZE));
+            for (RequestMatchingDocument document : documents) {
+                matchingIndex.index(document.getId(), document.getRequestorId(), document.getDescription());
+                lastId = document.getId();
+            }
+            count += documents.size();
+        } while (documents.size() == BATCH_SIZE);
+
+        log.info("Finish rebuilding request matching index, {} open requests indexed", count);
+    }
+}
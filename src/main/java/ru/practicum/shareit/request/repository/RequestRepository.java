@@ -1,18 +1,70 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import ru.practicum.shareit.request.matching.RequestMatchingDocument;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @RepositoryRestResource
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
 
+    // Автор запроса загружается тем же запросом, вещи запросов - отдельно через findDistinctByIdIn.
+    @EntityGraph(attributePaths = "requestor")
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long userId);
 
-    Page<ItemRequest>  findByRequestorIdNotOrderByCreatedDesc(Long userId, Pageable pr);
+    /**
+     * Чужие запросы в порядке, заданном pageable. Срез не требует запроса количества строк:
+     * признак следующей страницы определяется по одной лишней строке.
+     */
+    @EntityGraph(attributePaths = "requestor")
+    Slice<ItemRequest> findByRequestorIdNot(Long userId, Pageable pageable);
+
+    /**
+     * Чужие запросы, следующие в порядке убывания (created, id) сразу после переданной позиции.
+     */
+    @EntityGraph(attributePaths = "requestor")
+    @Query("select r from ItemRequest r "
+            + "where r.requestor.id <> :userId "
+            + "and (r.created < :created or (r.created = :created and r.id < :id))")
+    Slice<ItemRequest> findByRequestorIdNotAfter(@Param("userId") Long userId,
+                                                 @Param("created") LocalDateTime created,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    /**
+     * Загружает запросы вместе с вещами и их владельцами одним запросом. Вызывается для уже загруженной
+     * страницы запросов: их коллекции вещей инициализируются без отдельного запроса на каждый запрос.
+     */
+    @EntityGraph(attributePaths = {"requestor", "items", "items.owner"})
+    List<ItemRequest> findDistinctByIdIn(Collection<Long> ids);
+
+    /**
+     * Открытые запросы, на которые еще не создано ни одной вещи, по возрастанию id после указанного.
+     */
+    @Query("select r.id as id, r.requestor.id as requestorId, r.description as description "
+            + "from ItemRequest r "
+            + "where r.id > :id and r.items is empty "
+            + "order by r.id")
+    List<RequestMatchingDocument> findOpenByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Загружает существующие из указанных запросов и блокирует их от удаления до конца транзакции.
+     * Отсутствующие запросы не возвращаются. Блокировка совместная, поэтому параллельные записи вещей
+     * по одним и тем же запросам друг друга не ждут.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select r from ItemRequest r where r.id in :ids order by r.id")
+    List<ItemRequest> findAllByIdForShare(@Param("ids") Collection<Long> ids);
 
 }
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+
+import java.util.List;
+
+@RepositoryRestResource
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, Long> {
+
+    /**
+     * Доступные вещи, подобранные для запроса, от лучшего совпадения к худшему.
+     * Владелец и запрос вещи загружаются тем же запросом.
+     */
+    @Query("select i from RequestSuggestion s "
+            + "join s.item i "
+            + "join fetch i.owner "
+            + "left join fetch i.request r "
+            + "left join fetch r.requestor "
+            + "where s.request.id = :requestId and i.available = true "
+            + "order by s.score desc, i.id")
+    List<Item> findItemsByRequestId(@Param("requestId") Long requestId, Pageable pageable);
+
+    /**
+     * Удаляет подборки вещи перед повторным подбором после ее изменения.
+     * Изменяющий запрос не публикуется через Data REST.
+     */
+    @RestResource(exported = false)
+    @Modifying(flushAutomatically = true)
+    @Query("delete from RequestSuggestion s where s.item.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+}
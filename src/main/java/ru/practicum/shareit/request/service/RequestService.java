@@ -1,8 +1,10 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.request.ItemRequestRequestParam;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RequestService {
@@ -11,9 +13,15 @@ public interface RequestService {
 
     List<ItemRequest> getAllUsersRequests(Long userId);
 
-    List<ItemRequest> getAll(Long userId, ItemRequestRequestParam params);
+    /**
+     * Возвращает чужие запросы от новых к старым. Если передан курсор, срез начинается сразу после него,
+     * иначе пропускается from запросов.
+     */
+    Slice<ItemRequest> getAll(Long userId, ItemRequestRequestParam params);
 
     ItemRequest getById(Long requestId);
 
     ItemRequest getById(Long requestId, Long userId);
+
+    List<ItemRequest> getAllById(Collection<Long> requestIds);
 }
@@ -1,94 +1,118 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.request.ItemRequestRequestParam;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class RequestServiceImpl implements RequestService {
+    private static final Sort REQUESTS_SORT = Sort.by(Sort.Direction.DESC, "created", "id");
 
     public final RequestRepository requestRepository;
 
     public final UserService userService;
 
+    public final RequestMatchingIndex matchingIndex;
+
     @Override
     public ItemRequest getById(Long requestId) {
-        log.info("Start getting item request by id {}", requestId);
-
         ItemRequest foundedItemRequest = requestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException(ItemRequest.class.getSimpleName(), requestId));
 
-        log.info("Finish getting item request by id {}", requestId);
-
         return foundedItemRequest;
     }
 
     @Override
     public ItemRequest getById(Long requestId, Long userId) {
-        log.info("Start getting item request by id {} for user with id {}", requestId, userId);
-
         userService.checkUserExist(userId);
         ItemRequest foundedItemRequest = getById(requestId);
 
-        log.info("Finish getting item request by id {} for user with id {}", requestId, userId);
-
         return foundedItemRequest;
     }
 
+    @Override
+    public List<ItemRequest> getAllById(Collection<Long> requestIds) {
+        return requestRepository.findAllById(requestIds);
+    }
+
     @Override
     @Transactional
     public ItemRequest save(Long ownerId, ItemRequest request) {
-        log.info("Start saving item request with id {} for user with id {}", request.getId(), ownerId);
-
         User owner = userService.getById(ownerId);
 
         request.setRequestor(owner);
         request.setCreated(LocalDateTime.now());
         ItemRequest newRequest = requestRepository.save(request);
-
-        log.info("Finish saving item request with id {} for user with id {}", request.getId(), ownerId);
+        TransactionHooks.afterCommit(() -> matchingIndex.index(newRequest));
 
         return newRequest;
     }
 
     @Override
     public List<ItemRequest> getAllUsersRequests(Long userId) {
-        log.info("Start getting all requests for user with id {}", userId);
-
         userService.checkUserExist(userId);
         List<ItemRequest> requests = requestRepository.findByRequestorIdOrderByCreatedDesc(userId);
-
-        log.info("Finish getting all requests for user with id {}", userId);
+        fetchItems(requests);
 
         return requests;
     }
 
     @Override
-    public List<ItemRequest> getAll(Long userId, ItemRequestRequestParam params) {
-        log.info("Start getting all request");
+    public Slice<ItemRequest> getAll(Long userId, ItemRequestRequestParam params) {
+        if (params.getFrom() < 0 || params.getSize() < 1) {
+            throw new BadRequestException("Incorrect paging parameters: from "
+                    + params.getFrom()
+                    + ", size "
+                    + params.getSize());
+        }
+
+        Slice<ItemRequest> requests;
+        if (params.getCursor() != null) {
+            // В режиме курсора смещение не используется: база данных сразу переходит к нужной позиции индекса.
+            KeysetCursor cursor = KeysetCursor.decode(params.getCursor());
+            Pageable pageable = PageRequest.of(0, params.getSize(), REQUESTS_SORT);
+            requests = requestRepository.findByRequestorIdNotAfter(userId, cursor.getValue(), cursor.getId(), pageable);
+        } else {
+            // from - число пропускаемых запросов, а не номер страницы.
+            Pageable pageable = new MyPageRequest(params.getFrom(), params.getSize(), REQUESTS_SORT);
+            requests = requestRepository.findByRequestorIdNot(userId, pageable);
+        }
+        fetchItems(requests.getContent());
 
-        PageRequest pr = PageRequest.of(params.getFrom(), params.getSize());
-        Page<ItemRequest> page = requestRepository.findByRequestorIdNotOrderByCreatedDesc(userId, pr);
-        List<ItemRequest> requests = page.getContent();
+        return requests;
+    }
 
-        log.info("Finish getting all request");
+    private void fetchItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
 
-        return requests;
+        // Вещи всех запросов страницы загружаются одним запросом по списку идентификаторов.
+        requestRepository.findDistinctByIdIn(requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList()));
     }
 
 }
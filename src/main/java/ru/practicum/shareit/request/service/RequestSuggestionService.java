@@ -0,0 +1,23 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRequestParam;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RequestSuggestionService {
+
+    /**
+     * Подбирает открытые запросы для сохраненных вещей и записывает подборки. Запросы, указанные
+     * в вещах явно, перестают быть открытыми.
+     */
+    void onItemsSaved(Collection<Item> items);
+
+    /**
+     * Заменяет подборки измененной вещи новыми.
+     */
+    void onItemUpdated(Item item);
+
+    List<Item> getSuggestedItems(Long requestId, Long userId, ItemRequestRequestParam params);
+}
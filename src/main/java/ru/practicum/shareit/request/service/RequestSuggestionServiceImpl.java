@@ -0,0 +1,134 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRequestParam;
+import ru.practicum.shareit.request.matching.RequestMatch;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Подбор запросов выполняется по индексу в памяти при записи вещи, а результат сохраняется,
+ * поэтому автор запроса получает подходящие вещи одним чтением, без повторного поиска.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RequestSuggestionServiceImpl implements RequestSuggestionService {
+    static final int MAX_SUGGESTIONS_PER_ITEM = 10;
+
+    public final RequestSuggestionRepository suggestionRepository;
+    public final RequestRepository requestRepository;
+    public final RequestService requestService;
+    public final RequestMatchingIndex matchingIndex;
+
+    @Override
+    @Transactional
+    public void onItemsSaved(Collection<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Map.Entry<Item, RequestMatch>> candidates = new ArrayList<>();
+        Set<Long> fulfilledRequestIds = new HashSet<>();
+        for (Item item : items) {
+            Long requestId = Optional.ofNullable(item.getRequest())
+                    .map(ItemRequest::getId)
+                    .orElse(null);
+            if (requestId != null) {
+                fulfilledRequestIds.add(requestId);
+            }
+
+            // Недоступные вещи не предлагаются.
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                continue;
+            }
+
+            for (RequestMatch match : match(item)) {
+                if (!match.getRequestId().equals(requestId)) {
+                    candidates.add(Map.entry(item, match));
+                }
+            }
+        }
+
+        // Индекс обновляется после фиксации и может ссылаться на уже удаленные запросы. Подборки сохраняются
+        // только для существующих запросов, которые заблокированы от удаления до конца транзакции:
+        // иначе нарушение внешнего ключа откатило бы запись самой вещи.
+        Map<Long, ItemRequest> requests = new HashMap<>();
+        if (!candidates.isEmpty()) {
+            Set<Long> requestIds = candidates.stream()
+                    .map(candidate -> candidate.getValue().getRequestId())
+                    .collect(Collectors.toSet());
+            requests.putAll(requestRepository.findAllByIdForShare(requestIds).stream()
+                    .collect(Collectors.toMap(ItemRequest::getId, Function.identity())));
+            requestIds.stream()
+                    .filter(requestId -> !requests.containsKey(requestId))
+                    .forEach(matchingIndex::remove);
+        }
+
+        List<RequestSuggestion> suggestions = new ArrayList<>();
+        for (Map.Entry<Item, RequestMatch> candidate : candidates) {
+            ItemRequest request = requests.get(candidate.getValue().getRequestId());
+            if (request != null) {
+                suggestions.add(RequestSuggestion.builder()
+                        .request(request)
+                        .item(candidate.getKey())
+                        .score(candidate.getValue().getScore())
+                        .created(now)
+                        .build());
+            }
+        }
+
+        suggestionRepository.saveAll(suggestions);
+        if (!fulfilledRequestIds.isEmpty()) {
+            TransactionHooks.afterCommit(() -> fulfilledRequestIds.forEach(matchingIndex::remove));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void onItemUpdated(Item item) {
+        suggestionRepository.deleteByItemId(item.getId());
+        onItemsSaved(List.of(item));
+    }
+
+    @Override
+    public List<Item> getSuggestedItems(Long requestId, Long userId, ItemRequestRequestParam params) {
+        if (params.getFrom() < 0 || params.getSize() < 1) {
+            throw new BadRequestException("Incorrect paging parameters: from "
+                    + params.getFrom()
+                    + ", size "
+                    + params.getSize());
+        }
+
+        // Проверим, что пользователь и запрос существуют.
+        requestService.getById(requestId, userId);
+
+        return suggestionRepository.findItemsByRequestId(requestId,
+                new MyPageRequest(params.getFrom(), params.getSize(), Sort.unsorted()));
+    }
+
+    private List<RequestMatch> match(Item item) {
+        try {
+            return matchingIndex.match(item.getName(), item.getDescription(), item.getOwner().getId(),
+                    MAX_SUGGESTIONS_PER_ITEM);
+        } catch (RuntimeException exception) {
+            // Подборки - дополнение к вещи: ошибка индекса не должна мешать ее сохранению.
+            log.error("Failed to match requests for item {}: {}", item.getId(), exception.getMessage(), exception);
+            return List.of();
+        }
+    }
+}
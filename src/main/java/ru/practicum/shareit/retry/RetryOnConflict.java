@@ -0,0 +1,20 @@
+package ru.practicum.shareit.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторяет метод сервиса в новой транзакции, если он завершился конфликтом оптимистической блокировки.
+ * При повторе состояние перечитывается, поэтому проверки метода выполняются по актуальным данным.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /**
+     * Наибольшее число попыток, включая первую. После последней неудачной попытки конфликт передается вызывающему.
+     */
+    int maxAttempts() default 3;
+}
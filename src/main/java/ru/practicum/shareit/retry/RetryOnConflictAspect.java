@@ -0,0 +1,43 @@
+package ru.practicum.shareit.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Выполняет повторы для методов с {@link RetryOnConflict}. Аспект стоит перед транзакцией метода,
+ * поэтому каждая попытка выполняется в своей транзакции.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        // Внутри внешней транзакции повтор бесполезен: она уже помечена для отката.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException exception) {
+                if (attempt >= retryOnConflict.maxAttempts()) {
+                    throw exception;
+                }
+
+                log.debug("Conflict in {}, attempt {} of {}: {}", joinPoint.getSignature().toShortString(), attempt,
+                        retryOnConflict.maxAttempts(), exception.getMessage());
+            }
+        }
+    }
+}
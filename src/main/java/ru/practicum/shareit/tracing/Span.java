@@ -0,0 +1,33 @@
+package ru.practicum.shareit.tracing;
+
+/**
+ * Измеряемая операция. Завершается вызовом close, поэтому удобно использовать в try-with-resources.
+ */
+public class Span implements AutoCloseable {
+    private final Tracer tracer;
+    private final Trace trace;
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final int depth;
+    private String error;
+
+    Span(Tracer tracer, Trace trace, String name) {
+        this.tracer = tracer;
+        this.trace = trace;
+        this.name = name;
+        this.depth = trace == null ? 0 : trace.enter();
+    }
+
+    public void setError(Throwable throwable) {
+        this.error = throwable.getClass().getSimpleName();
+    }
+
+    @Override
+    public void close() {
+        long durationNanos = System.nanoTime() - startNanos;
+        String traceId = trace == null ? null : trace.getId();
+        long relativeStart = trace == null ? 0 : startNanos - trace.getStartNanos();
+
+        tracer.finish(trace, new SpanRecord(traceId, name, relativeStart, durationNanos, depth, error));
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Завершенный span: имя операции, время начала относительно начала трассировки, длительность и глубина вложенности.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SpanRecord {
+    private final String traceId;
+    private final String name;
+    private final long startNanos;
+    private final long durationNanos;
+    private final int depth;
+    private final String error;
+}
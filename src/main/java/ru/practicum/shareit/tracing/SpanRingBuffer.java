@@ -0,0 +1,43 @@
+package ru.practicum.shareit.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер последних завершенных span. Запись не блокирует потоки: новые записи затирают самые старые.
+ */
+public class SpanRingBuffer {
+
+    private final AtomicReferenceArray<SpanRecord> records;
+    private final AtomicLong position = new AtomicLong();
+
+    public SpanRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.records = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SpanRecord record) {
+        records.set((int) (position.getAndIncrement() % records.length()), record);
+    }
+
+    /**
+     * Возвращает записи от самой старой к самой новой.
+     */
+    public List<SpanRecord> snapshot() {
+        long end = position.get();
+        long start = Math.max(0, end - records.length());
+        List<SpanRecord> snapshot = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            SpanRecord record = records.get((int) (i % records.length()));
+            if (record != null) {
+                snapshot.add(record);
+            }
+        }
+
+        return snapshot;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Последние завершенные span из кольцевого буфера: /actuator/spans.
+ */
+@Endpoint(id = "spans")
+@RequiredArgsConstructor
+public class SpansEndpoint {
+
+    private final Tracer tracer;
+
+    @ReadOperation
+    public List<SpanRecord> spans() {
+        return tracer.getRecentSpans();
+    }
+}
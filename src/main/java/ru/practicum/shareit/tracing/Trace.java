@@ -0,0 +1,48 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Трассировка одного запроса. Span собираются только для выбранных сэмплированием или отладочных запросов.
+ */
+@Getter
+public class Trace {
+    private final String id;
+    private final boolean sampled;
+    private final boolean debug;
+    private final long startNanos = System.nanoTime();
+    private final List<SpanRecord> spans = new ArrayList<>();
+    private int depth;
+
+    Trace(String id, boolean sampled, boolean debug) {
+        this.id = id;
+        this.sampled = sampled;
+        this.debug = debug;
+    }
+
+    public boolean isRecording() {
+        return sampled || debug;
+    }
+
+    public List<SpanRecord> getSpansByStart() {
+        List<SpanRecord> sorted = new ArrayList<>(spans);
+        sorted.sort(Comparator.comparingLong(SpanRecord::getStartNanos));
+
+        return sorted;
+    }
+
+    int enter() {
+        return depth++;
+    }
+
+    void exit(SpanRecord record) {
+        depth--;
+        if (isRecording()) {
+            spans.add(record);
+        }
+    }
+}
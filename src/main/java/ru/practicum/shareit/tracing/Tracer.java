@@ -0,0 +1,80 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Легковесная трассировка запросов.
+ * Длительность каждого span всегда попадает в кольцевой буфер, а в журнал выводятся только выбранные
+ * сэмплированием запросы одной строкой и отладочные запросы подробным деревом span.
+ */
+@Slf4j
+public class Tracer {
+
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+    private final SpanRingBuffer buffer;
+    private final double sampleRate;
+
+    public Tracer(int bufferSize, double sampleRate) {
+        this.buffer = new SpanRingBuffer(bufferSize);
+        this.sampleRate = sampleRate;
+    }
+
+    public Span start(String name) {
+        return new Span(this, current.get(), name);
+    }
+
+    public Trace beginTrace(boolean debug) {
+        boolean sampled = !debug && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        Trace trace = new Trace(Long.toHexString(ThreadLocalRandom.current().nextLong()), sampled, debug);
+        current.set(trace);
+
+        return trace;
+    }
+
+    public void endTrace(Trace trace, String method, String uri, int status) {
+        current.remove();
+        if (!trace.isRecording()) {
+            return;
+        }
+
+        double durationMillis = toMillis(System.nanoTime() - trace.getStartNanos());
+        List<SpanRecord> spans = trace.getSpansByStart();
+        if (trace.isDebug()) {
+            String dump = spans.stream()
+                    .map(span -> "  ".repeat(span.getDepth() + 1) + format(span)
+                            + " at +" + String.format("%.3f", toMillis(span.getStartNanos())) + "ms")
+                    .collect(Collectors.joining("\n"));
+            log.info("trace={} method={} uri={} status={} durationMs={}\n{}",
+                    trace.getId(), method, uri, status, String.format("%.3f", durationMillis), dump);
+        } else {
+            log.info("trace={} method={} uri={} status={} durationMs={} spans=[{}]",
+                    trace.getId(), method, uri, status, String.format("%.3f", durationMillis),
+                    spans.stream().map(Tracer::format).collect(Collectors.joining(", ")));
+        }
+    }
+
+    public List<SpanRecord> getRecentSpans() {
+        return buffer.snapshot();
+    }
+
+    void finish(Trace trace, SpanRecord record) {
+        buffer.add(record);
+        if (trace != null) {
+            trace.exit(record);
+        }
+    }
+
+    private static String format(SpanRecord span) {
+        String error = span.getError() == null ? "" : " error=" + span.getError();
+
+        return span.getName() + "=" + String.format("%.3f", toMillis(span.getDurationNanos())) + "ms" + error;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public Tracer tracer(@Value("${shareit.tracing.buffer-size:1024}") int bufferSize,
+                         @Value("${shareit.tracing.sample-rate:0.01}") double sampleRate) {
+        return new Tracer(bufferSize, sampleRate);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+
+        return registration;
+    }
+
+    @Bean
+    public SpansEndpoint spansEndpoint(Tracer tracer) {
+        return new SpansEndpoint(tracer);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Открывает трассировку на каждый HTTP-запрос. Заголовок X-Debug-Trace: true включает подробный вывод
+ * span для этого запроса, идентификатор записанной трассировки возвращается в заголовке X-Trace-Id.
+ */
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Trace";
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Trace trace = tracer.beginTrace(Boolean.parseBoolean(request.getHeader(DEBUG_HEADER)));
+        if (trace.isRecording()) {
+            response.setHeader(TRACE_ID_HEADER, trace.getId());
+        }
+
+        try (Span span = tracer.start(request.getMethod() + " " + request.getRequestURI())) {
+            chain.doFilter(request, response);
+        } finally {
+            tracer.endTrace(trace, request.getMethod(), request.getRequestURI(), response.getStatus());
+        }
+    }
+}
@@ -20,7 +20,7 @@ public class UserController {
 
     @GetMapping
     public List<UserDto> getAllUsers() {
-        log.info("Handling get all users request");
+        log.debug("Handling get all users request");
 
         return service.getAll().stream()
                 .map(UserMapper::toUserDto)
@@ -29,7 +29,7 @@ public class UserController {
 
     @PostMapping
     public UserDto saveNewUser(@Valid @RequestBody UserDto userDto) {
-        log.info("Handling a request to create a new user");
+        log.debug("Handling a request to create a new user");
 
         User user = UserMapper.toUser(userDto);
         User createdUser = service.save(user);
@@ -39,7 +39,7 @@ public class UserController {
 
     @PatchMapping("/{userId}")
     public UserDto updateUser(@PathVariable Long userId, @RequestBody UserDto userDto) {
-        log.info("Handling a request to update the user with id {}", userId);
+        log.debug("Handling a request to update the user with id {}", userId);
 
         User user = UserMapper.toUser(userDto);
         User updatedUser = service.update(userId, user);
@@ -49,7 +49,7 @@ public class UserController {
 
     @GetMapping("/{userId}")
     public UserDto getUserById(@PathVariable Long userId) {
-        log.info("Handling a request to get a user with id {}", userId);
+        log.debug("Handling a request to get a user with id {}", userId);
 
         User user = service.getById(userId);
 
@@ -58,7 +58,7 @@ public class UserController {
 
     @DeleteMapping("/{userId}")
     public void deleteUserById(@PathVariable Long userId) {
-        log.info("Handling a request to delete a user with id {}", userId);
+        log.debug("Handling a request to delete a user with id {}", userId);
 
         service.deleteById(userId);
     }
@@ -1,62 +1,60 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.TransactionHooks;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 class UserServiceImpl implements UserService {
     private final UserRepository repository;
+    private final ItemSearchIndex searchIndex;
+    private final BookingIntervalIndex intervalIndex;
+    private final ItemBookingSummaryService summaryService;
+    private final RequestMatchingIndex matchingIndex;
 
     @Override
     public List<User> getAll() {
-        log.info("Start getting all users");
-
         List<User> users = repository.findAll();
 
-        log.info("Finish getting all users");
-
         return users;
     }
 
     @Override
     @Transactional
     public User save(User user) {
-        log.info("Start saving user {}", user);
-
         User savedUser = repository.save(user);
 
-        log.info("Finish saving user {}", savedUser);
-
         return savedUser;
     }
 
     @Override
     public User getById(Long userId) {
-        log.info("Start getting user by id {}", userId);
-
         User gettingUser = repository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(User.class.getSimpleName(), userId));
 
-        log.info("Finish getting user by id {}", userId);
-
         return gettingUser;
     }
 
     @Override
     @Transactional
     public User update(Long userId, User user) {
-        log.info("Start updating user by id {}", userId);
-
         User userForUpdate = getById(userId);
 
         // Обновим Email
@@ -72,25 +70,46 @@ class UserServiceImpl implements UserService {
 
         User updatedUser = repository.save(userForUpdate);
 
-        log.info("Finish updating user by id {}", userId);
-
         return updatedUser;
     }
 
     @Override
     @Transactional
     public void deleteById(Long userId) {
-        log.info("Start deletion user by id {}", userId);
-
+        // Коллекции пользователя все равно загружаются для каскадного удаления, поэтому удаляемые вместе с ним
+        // данные можно узнать без дополнительных запросов и после фиксации транзакции убрать их из индексов.
+        repository.findById(userId).ifPresent(user -> {
+            // Сводки вещей пользователя удаляются каскадно, а сводки чужих вещей, которые он бронировал, поправим.
+            summaryService.onBookingsDeleted(user.getBookings());
+            removeFromIndexesAfterCommit(user);
+        });
         repository.deleteById(userId);
-
-        log.info("Finish deletion user by id {}", userId);
     }
 
     @Override
     public void checkUserExist(Long userId) {
-        if (!repository.existsById(userId)) {
-            throw new NotFoundException(User.class.getSimpleName(), userId);
-        }
+        // Поиск по идентификатору обслуживается кэшем второго уровня, поэтому повторные проверки
+        // не обращаются к базе данных.
+        getById(userId);
+    }
+
+    private void removeFromIndexesAfterCommit(User user) {
+        List<Long> itemIds = user.getItems().stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        // Удаляются бронирования пользователя и все бронирования его вещей.
+        List<Booking> bookings = Stream.concat(user.getBookings().stream(),
+                        user.getItems().stream().flatMap(item -> item.getBookings().stream()))
+                .collect(Collectors.toList());
+        // Удаленные запросы больше нельзя предлагать владельцам новых вещей.
+        List<Long> requestIds = user.getRequests().stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+
+        TransactionHooks.afterCommit(() -> {
+            itemIds.forEach(searchIndex::remove);
+            requestIds.forEach(matchingIndex::remove);
+            bookings.forEach(booking -> intervalIndex.remove(booking.getItem().getId(), booking.getId()));
+        });
     }
-}
\ No newline at end of file
+}
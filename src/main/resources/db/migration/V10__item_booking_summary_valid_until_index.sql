@@ -0,0 +1,2 @@
+-- Устаревшие сводки бронирований вещей выбираются фоновым пересчетом по моменту valid_until.
+CREATE INDEX idx_item_booking_summary_valid_until ON item_booking_summary (valid_until);
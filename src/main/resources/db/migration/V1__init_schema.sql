@@ -1,10 +1,4 @@
--- DROP TABLE IF EXISTS users CASCADE;
--- DROP TABLE IF EXISTS items CASCADE;
--- DROP TABLE IF EXISTS bookings CASCADE;
--- DROP TABLE IF EXISTS comments CASCADE;
--- DROP TABLE IF EXISTS requests CASCADE;
-
-CREATE TABLE IF NOT EXISTS users (
+CREATE TABLE users (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name  VARCHAR(50)                             NOT NULL,
     email VARCHAR(250)                            NOT NULL,
@@ -12,7 +6,7 @@ CREATE TABLE IF NOT EXISTS users (
     CONSTRAINT uq_user_email UNIQUE (email)
 );
 
-CREATE TABLE IF NOT EXISTS requests (
+CREATE TABLE requests (
     id              BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     description     VARCHAR(1000)                           NOT NULL,
     created         TIMESTAMP                               NOT NULL,
@@ -20,7 +14,7 @@ CREATE TABLE IF NOT EXISTS requests (
     CONSTRAINT pk_requests PRIMARY KEY (id)
 );
 
-CREATE TABLE IF NOT EXISTS items (
+CREATE TABLE items (
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     is_available BOOLEAN                                 NOT NULL DEFAULT FALSE,
     owner_id     BIGINT REFERENCES users (id) ON DELETE CASCADE,
@@ -30,7 +24,7 @@ CREATE TABLE IF NOT EXISTS items (
     CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
+CREATE TABLE bookings (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     start_date TIMESTAMP                               NOT NULL,
     end_date   TIMESTAMP                               NOT NULL,
@@ -40,7 +34,7 @@ CREATE TABLE IF NOT EXISTS bookings (
     CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
-CREATE TABLE IF NOT EXISTS comments (
+CREATE TABLE comments (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     text      VARCHAR(1000)                           NOT NULL,
     item_id   BIGINT REFERENCES items (id) ON DELETE CASCADE,
@@ -0,0 +1,20 @@
+-- Бронирования пользователя: фильтр по заказчику, диапазоны дат и сортировка по (start_date, id).
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+
+-- Бронирования вещи: проверка пересечений, календарь доступности, последнее и следующее бронирование,
+-- а также бронирования владельца через соединение с items.
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date);
+
+-- Загрузка актуальных подтвержденных бронирований в индекс интервалов.
+CREATE INDEX idx_bookings_status_end ON bookings (status, end_date);
+
+-- Вещи владельца и вещи, созданные в ответ на запрос.
+CREATE INDEX idx_items_owner ON items (owner_id, id);
+CREATE INDEX idx_items_request ON items (request_id);
+
+-- Запросы пользователя и лента чужих запросов, отсортированные по дате создания.
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created);
+CREATE INDEX idx_requests_created ON requests (created);
+
+-- Комментарии к вещи.
+CREATE INDEX idx_comments_item ON comments (item_id);
@@ -0,0 +1,21 @@
+-- Сводка по бронированиям вещи для страниц владельца. Количество и суммарная длительность подтвержденных
+-- бронирований обновляются при записи, последнее и следующее бронирования актуальны до момента valid_until.
+CREATE TABLE item_booking_summary (
+    item_id         BIGINT    NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    bookings_count  BIGINT    NOT NULL DEFAULT 0,
+    rental_seconds  BIGINT    NOT NULL DEFAULT 0,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    valid_until     TIMESTAMP,
+    CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id)
+);
+
+-- Последнее и следующее бронирования существующих вещей будут вычислены при первом чтении.
+INSERT INTO item_booking_summary (item_id, bookings_count, rental_seconds, valid_until)
+SELECT i.id,
+       COUNT(b.id),
+       COALESCE(CAST(SUM(EXTRACT(EPOCH FROM (b.end_date - b.start_date))) AS BIGINT), 0),
+       CURRENT_TIMESTAMP
+FROM items i
+         LEFT JOIN bookings b ON b.item_id = i.id AND b.status = 'APPROVED'
+GROUP BY i.id;
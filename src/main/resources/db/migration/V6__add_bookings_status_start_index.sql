@@ -0,0 +1,2 @@
+-- Поиск ожидающих подтверждения бронирований, которые уже начались, для перевода в статус EXPIRED.
+CREATE INDEX idx_bookings_status_start ON bookings (status, start_date);
@@ -0,0 +1,15 @@
+-- Вещи, подобранные для открытых запросов по совпадению слов наименования и описания.
+CREATE SEQUENCE request_suggestions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE request_suggestions (
+    id         BIGINT    NOT NULL,
+    request_id BIGINT    NOT NULL REFERENCES requests (id) ON DELETE CASCADE,
+    item_id    BIGINT    NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    score      INTEGER   NOT NULL,
+    created    TIMESTAMP NOT NULL,
+    CONSTRAINT pk_request_suggestions PRIMARY KEY (id),
+    CONSTRAINT uq_request_suggestions UNIQUE (request_id, item_id)
+);
+
+-- Удаление подборок вещи при ее изменении.
+CREATE INDEX idx_request_suggestions_item ON request_suggestions (item_id);
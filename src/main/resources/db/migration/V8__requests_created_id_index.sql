@@ -0,0 +1,3 @@
+-- Лента чужих запросов листается по убыванию (created, id), идентификатор различает запросы с одинаковой датой.
+DROP INDEX idx_requests_created;
+CREATE INDEX idx_requests_created_id ON requests (created, id);
@@ -0,0 +1,2 @@
+-- Проверка, что автор отзыва брал вещь: подтвержденное бронирование пользователя, начавшееся до текущего момента.
+CREATE INDEX idx_bookings_booker_item_status_start ON bookings (booker_id, item_id, status, start_date);
@@ -0,0 +1,56 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что последовательности идентификаторов создаются с учетом уже существующих данных.
+ */
+class IdSequencesMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:id_sequences;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void migrate_whenTablesContainRows_thenSequencesStartAfterExistingIdsTest() throws SQLException {
+        // Этап 1: применим миграции до создания последовательностей и добавим данные.
+        migrate("2");
+        try (Connection connection = DriverManager.getConnection(URL, "root", "root");
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, name, email) VALUES (120, 'user', 'user@email.com')");
+
+            // Этап 2: применим оставшиеся миграции.
+            migrate("latest");
+
+            // Этап 3: значение последовательности - верхняя граница первого блока из 50 идентификаторов.
+            assertEquals(170, nextValue(statement, "users_seq"));
+            assertEquals(50, nextValue(statement, "bookings_seq"));
+
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    private static void migrate(String target) {
+        Flyway.configure()
+                .dataSource(URL, "root", "root")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static long nextValue(Statement statement, String sequence) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+            resultSet.next();
+
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_whenCursorWasEncoded_thenReturnSamePositionTest() {
+        final KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2030, 1, 1, 12, 30, 15, 123456000), 42L);
+
+        final String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("|"));
+        assertEquals(cursor, KeysetCursor.decode(encoded));
+    }
+
+    @Test
+    void decode_whenCursorIsIncorrect_thenBadRequestExceptionThrownTest() {
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("MjAzMC0wMS0wMQ"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(""));
+    }
+}
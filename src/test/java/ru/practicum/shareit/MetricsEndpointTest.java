@@ -0,0 +1,59 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.tracing.TracingFilter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void prometheus_whenRequestsHandled_thenServiceErrorAndSqlMetricsExposedTest() throws Exception {
+        // Этап 1: выполним запрос несуществующего пользователя.
+        mockMvc.perform(get("/users/{userId}", 100))
+                .andExpect(status().isNotFound());
+
+        // Этап 2: проверим, что метрики доступны в формате Prometheus.
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "shareit_service_seconds_count{class=\"UserServiceImpl\",exception=\"NotFoundException\","
+                                + "method=\"getById\",}")))
+                .andExpect(content().string(containsString(
+                        "shareit_service_seconds{class=\"UserServiceImpl\",exception=\"NotFoundException\","
+                                + "method=\"getById\",quantile=\"0.99\",}")))
+                .andExpect(content().string(containsString(
+                        "shareit_errors_total{exception=\"NotFoundException\",status=\"404\",}")))
+                .andExpect(content().string(containsString(
+                        "shareit_sql_statements_count{method=\"GET\",uri=\"/users/{userId}\",}")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")));
+    }
+
+    @Test
+    void spans_whenDebugHeaderPassed_thenTraceIdReturnedAndSpansExposedTest() throws Exception {
+        mockMvc.perform(get("/users").header(TracingFilter.DEBUG_HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(TracingFilter.TRACE_ID_HEADER));
+
+        mockMvc.perform(get("/actuator/spans"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"name\":\"UserServiceImpl.getAll\"")))
+                .andExpect(content().string(containsString("\"name\":\"GET /users\"")));
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет, что миграции применяются как в обычном режиме H2, так и в режиме совместимости с PostgreSQL,
+ * и что планы горячих запросов используют индексы.
+ */
+class SchemaIndexesTest {
+
+    // Запросы повторяют условия QueryDSL-фильтров бронирований и производных запросов репозиториев.
+    // Пустое имя индекса означает, что подходит любой индекс: H2 сам индексирует внешние ключи и при равной
+    // стоимости может выбрать свой индекс, а индексы из миграции нужны PostgreSQL, где такие индексы не создаются.
+    private static final Map<String, String> QUERY_INDEXES = Map.of(
+            "SELECT b.id FROM bookings b WHERE b.booker_id = 1 AND b.start_date > TIMESTAMP '2030-01-01 00:00:00'"
+                    + " ORDER BY b.start_date DESC, b.id DESC LIMIT 30",
+            "idx_bookings_booker_start",
+            "SELECT b.id FROM bookings b WHERE b.item_id = 1 AND b.status = 'APPROVED'"
+                    + " AND b.start_date < TIMESTAMP '2030-01-02 00:00:00'"
+                    + " AND b.end_date > TIMESTAMP '2030-01-01 00:00:00'",
+            "idx_bookings_item_start",
+            "SELECT b.id FROM bookings b WHERE b.status = 'WAITING'"
+                    + " AND b.start_date < TIMESTAMP '2030-01-01 00:00:00' ORDER BY b.id LIMIT 1000",
+            "idx_bookings_status_start",
+            "SELECT b.id FROM bookings b JOIN items i ON b.item_id = i.id WHERE i.owner_id = 1"
+                    + " ORDER BY b.start_date DESC, b.id DESC LIMIT 30",
+            "",
+            "SELECT i.id FROM items i WHERE i.owner_id = 1 ORDER BY i.id",
+            "",
+            "SELECT i.id FROM items i WHERE i.request_id = 1",
+            "",
+            "SELECT r.id FROM requests r WHERE r.requestor_id = 1 ORDER BY r.created DESC",
+            "",
+            "SELECT r.id FROM requests r WHERE r.requestor_id <> 1 AND r.created < TIMESTAMP '2030-01-01 00:00:00'"
+                    + " ORDER BY r.created DESC, r.id DESC LIMIT 31",
+            "idx_requests_created_id",
+            "SELECT c.id FROM comments c WHERE c.item_id = 1",
+            "",
+            "SELECT b.id FROM bookings b WHERE b.booker_id = 1 AND b.item_id = 1 AND b.status = 'APPROVED'"
+                    + " AND b.start_date < TIMESTAMP '2030-01-01 00:00:00' LIMIT 1",
+            "idx_bookings_booker_item_status_start");
+
+    private static final Map<String, List<String>> INDEX_COLUMNS = Map.of(
+            "idx_bookings_booker_start", List.of("booker_id", "start_date", "id"),
+            "idx_bookings_booker_item_status_start", List.of("booker_id", "item_id", "status", "start_date"),
+            "idx_bookings_item_start", List.of("item_id", "start_date"),
+            "idx_bookings_status_end", List.of("status", "end_date"),
+            "idx_bookings_status_start", List.of("status", "start_date"),
+            "idx_items_owner", List.of("owner_id", "id"),
+            "idx_items_request", List.of("request_id"),
+            "idx_requests_requestor_created", List.of("requestor_id", "created"),
+            "idx_requests_created_id", List.of("created", "id"),
+            "idx_comments_item", List.of("item_id"));
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "jdbc:h2:mem:explain_h2;DB_CLOSE_DELAY=-1",
+            "jdbc:h2:mem:explain_pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+    })
+    void migrate_whenApplied_thenHotQueriesUseIndexesTest(String url) throws SQLException {
+        // Этап 1: применим миграции к пустой базе.
+        Flyway.configure()
+                .dataSource(url, "root", "root")
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, "root", "root");
+             Statement statement = connection.createStatement()) {
+            // Этап 2: проверим, что индексы созданы с нужным порядком колонок.
+            Map<String, List<String>> indexColumns = getIndexColumns(connection.getMetaData());
+            INDEX_COLUMNS.forEach((index, columns) -> assertEquals(columns, indexColumns.get(index), index));
+
+            // Этап 3: проверим планы выполнения запросов.
+            for (Map.Entry<String, String> entry : QUERY_INDEXES.entrySet()) {
+                String plan = explain(statement, entry.getKey()).toLowerCase();
+
+                assertFalse(plan.contains("tablescan"), "Expected no table scan in plan: " + plan);
+                assertTrue(plan.contains(entry.getValue()),
+                        "Expected index " + entry.getValue() + " in plan: " + plan);
+            }
+
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    private static Map<String, List<String>> getIndexColumns(DatabaseMetaData metaData) throws SQLException {
+        Map<String, List<String>> indexColumns = new TreeMap<>();
+        for (String table : List.of("bookings", "items", "requests", "comments")) {
+            // Имена таблиц хранятся в верхнем или нижнем регистре в зависимости от режима совместимости.
+            String tableName = metaData.storesLowerCaseIdentifiers() ? table : table.toUpperCase();
+            try (ResultSet resultSet = metaData.getIndexInfo(null, null, tableName, false, false)) {
+                while (resultSet.next()) {
+                    indexColumns.computeIfAbsent(resultSet.getString("INDEX_NAME").toLowerCase(),
+                                    name -> new ArrayList<>())
+                            .add(resultSet.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+        }
+
+        return indexColumns;
+    }
+
+    private static String explain(Statement statement, String query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + query)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1));
+            }
+        }
+
+        return plan.toString();
+    }
+}
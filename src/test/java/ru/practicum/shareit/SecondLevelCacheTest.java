@@ -0,0 +1,200 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что кэш второго уровня отдает пользователей и вещи без запросов к базе данных
+ * и что после изменения через сервисы в нем оказываются новые значения, а не устаревшие.
+ */
+@SpringBootTest(properties = "shareit.bookings.expiration.enabled=false")
+class SecondLevelCacheTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    SessionFactory sessionFactory;
+    Statistics statistics;
+    User owner;
+    Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("cache-owner@email.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Ударная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findById_whenItemCached_thenLoadedWithoutStatementsTest() {
+        // Этап 1: первое чтение загружает вещь из базы данных и кладет ее в кэш.
+        itemRepository.findById(item.getId()).orElseThrow();
+        final long statementsAfterLoad = statistics.getPrepareStatementCount();
+
+        // Этап 2: повторное чтение.
+        final Item cachedItem = itemRepository.findById(item.getId()).orElseThrow();
+
+        // Этап 3: вещь и ее владелец взяты из кэша.
+        assertEquals(item.getName(), cachedItem.getName());
+        assertEquals(owner.getId(), cachedItem.getOwner().getId());
+        assertEquals(statementsAfterLoad, statistics.getPrepareStatementCount());
+        assertTrue(getRegionStatistics("items").getHitCount() > 0);
+    }
+
+    @Test
+    void update_whenItemUpdated_thenCacheReturnsUpdatedItemTest() {
+        // Этап 1: загрузим вещь в кэш.
+        itemRepository.findById(item.getId()).orElseThrow();
+
+        // Этап 2: изменим вещь через сервис.
+        itemService.update(owner.getId(), item.getId(), null, Item.builder()
+                .name("Перфоратор")
+                .available(false)
+                .build());
+        final long statementsAfterUpdate = statistics.getPrepareStatementCount();
+        final long hitsAfterUpdate = getRegionStatistics("items").getHitCount();
+
+        // Этап 3: чтение из кэша возвращает измененную вещь без запроса к базе данных.
+        final Item cachedItem = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Перфоратор", cachedItem.getName());
+        assertFalse(cachedItem.getAvailable());
+        assertEquals(statementsAfterUpdate, statistics.getPrepareStatementCount());
+        assertEquals(hitsAfterUpdate + 1, getRegionStatistics("items").getHitCount());
+    }
+
+    @Test
+    void update_whenUserUpdated_thenCacheReturnsUpdatedUserTest() {
+        // Этап 1: загрузим пользователя в кэш.
+        userRepository.findById(owner.getId()).orElseThrow();
+
+        // Этап 2: изменим пользователя через сервис.
+        userService.update(owner.getId(), User.builder()
+                .name("updated")
+                .build());
+        final long statementsAfterUpdate = statistics.getPrepareStatementCount();
+
+        // Этап 3: чтение из кэша возвращает измененного пользователя без запроса к базе данных.
+        final User cachedUser = userRepository.findById(owner.getId()).orElseThrow();
+        assertEquals("updated", cachedUser.getName());
+        assertEquals(owner.getEmail(), cachedUser.getEmail());
+        assertEquals(statementsAfterUpdate, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void checkUserExist_whenCalledRepeatedly_thenUserLoadedFromDatabaseOnceTest() {
+        // Этап 1: первая проверка загружает пользователя в кэш.
+        userService.checkUserExist(owner.getId());
+        final long statementsAfterLoad = statistics.getPrepareStatementCount();
+
+        // Этап 2: повторные чтения.
+        userService.checkUserExist(owner.getId());
+        final User cachedUser = userService.getById(owner.getId());
+
+        // Этап 3: запросов к базе данных не было.
+        assertEquals(owner.getName(), cachedUser.getName());
+        assertEquals(statementsAfterLoad, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteById_whenUserCached_thenUserNotFoundAfterDeletionTest() {
+        // Этап 1: загрузим пользователя и его вещь в кэш.
+        itemRepository.findById(item.getId()).orElseThrow();
+
+        // Этап 2: удалим пользователя вместе с вещью.
+        userService.deleteById(owner.getId());
+
+        // Этап 3: кэш не возвращает удаленные записи. Вместо них в регионах остаются метки блокировки,
+        // которые при чтении считаются промахом.
+        assertThrows(NotFoundException.class, () -> userService.checkUserExist(owner.getId()));
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    void expireWaitingStartedBefore_whenExecuted_thenEntityCacheNotEvictedTest() {
+        // Этап 1: загрузим пользователя и вещь в кэш.
+        itemRepository.findById(item.getId()).orElseThrow();
+
+        // Этап 2: выполним SQL-запрос, изменяющий только бронирования.
+        transactionTemplate.executeWithoutResult(status ->
+                bookingRepository.expireWaitingStartedBefore(LocalDateTime.now(), 10));
+
+        // Этап 3: записи пользователей и вещей остались в кэше.
+        assertTrue(sessionFactory.getCache().containsEntity(Item.class, item.getId()));
+        assertTrue(sessionFactory.getCache().containsEntity(User.class, owner.getId()));
+    }
+
+    @Test
+    void findById_whenCacheUsed_thenRegionStatisticsPublishedAsMetricsTest() {
+        itemRepository.findById(item.getId()).orElseThrow();
+        itemRepository.findById(item.getId()).orElseThrow();
+
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "items")
+                .tag("result", "hit")
+                .functionCounter()
+                .count() > 0);
+    }
+
+    private CacheRegionStatistics getRegionStatistics(String region) {
+        return statistics.getDomainDataRegionStatistics(region);
+    }
+}
@@ -6,13 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -20,12 +25,16 @@ import ru.practicum.shareit.user.model.User;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.time.LocalDateTime.of;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +45,9 @@ class BookingControllerTest {
     @MockBean
     BookingService service;
 
+    @MockBean
+    ItemService itemService;
+
     @Autowired
     ObjectMapper mapper;
 
@@ -109,6 +121,42 @@ class BookingControllerTest {
                 .save(booker.getId(), booking, createBookingDto.getItemId());
     }
 
+    @Test
+    void saveNewBookings_whenInvoked_thenResponseStatusOkWithResultPerEntryTest() throws Exception {
+        final List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.builder()
+                        .index(0)
+                        .status(201)
+                        .booking(bookingDto)
+                        .build(),
+                BookingBatchResultDto.builder()
+                        .index(1)
+                        .status(404)
+                        .error("Item  with id: 99 does not exist")
+                        .build());
+        when(service.saveAll(eq(booker.getId()), anyList()))
+                .thenReturn(results);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(headerUserId, booker.getId())
+                        .content(mapper.writeValueAsString(List.of(createBookingDto, createBookingDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].index", is(0)))
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].status", is(404)))
+                .andExpect(jsonPath("$[1].error", is(results.get(1).getError())));
+
+        verify(service, times(1))
+                .saveAll(eq(booker.getId()), argThat(bookings -> bookings.size() == 2
+                        && bookings.get(0).getItemId().equals(createBookingDto.getItemId())));
+    }
+
     @Test
     void saveNewBooking_whenCreateBookingDtoIsNotCorrect_thenResponseStatus400Test() throws Exception {
         CreateBookingDto anotherCreateBookingDto = CreateBookingDto.builder().build();
@@ -140,7 +188,7 @@ class BookingControllerTest {
     @Test
     void approve_whenInvoked_thenResponseStatusOkWithBookingDtoInBodyTest() throws Exception {
         when(service.approve(booking.getBooker().getId(), booking.getId(), true))
-                .thenReturn(booking);
+                .thenReturn(bookingDto);
 
         mockMvc.perform(patch("/bookings/{bookingId}", booking.getId())
                         .header(headerUserId, booker.getId())
@@ -159,6 +207,19 @@ class BookingControllerTest {
                 .approve(booking.getBooker().getId(), booking.getId(), true);
     }
 
+    @Test
+    void approve_whenStatusChangedConcurrently_thenResponseStatusConflictTest() throws Exception {
+        when(service.approve(item.getOwner().getId(), booking.getId(), true))
+                .thenThrow(new OptimisticLockingFailureException("Booking status has already been changed"));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", booking.getId())
+                        .header(headerUserId, item.getOwner().getId())
+                        .param("approved", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Booking status has already been changed")));
+    }
+
     @Test
     void getBooking_whenInvoked_thenResponseStatusOkWithBookingDtoInBodyTest() throws Exception {
         when(service.getByIdAndUserId(booking.getId(), booking.getBooker().getId()))
@@ -187,7 +248,7 @@ class BookingControllerTest {
                 .state("ALL")
                 .build();
         when(service.getBookingsByBookerId(eq(booker.getId()), eq(defaultParams)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingDto));
 
         mockMvc.perform(get("/bookings")
                         .header(headerUserId, booker.getId())
@@ -217,7 +278,7 @@ class BookingControllerTest {
                 .state("ALL")
                 .build();
         when(service.getBookingsByOwnerId(eq(booking.getItem().getId()), eq(defaultParams)))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingDto));
 
         mockMvc.perform(get("/bookings/owner")
                         .header(headerUserId, booking.getItem().getId())
@@ -238,4 +299,84 @@ class BookingControllerTest {
         verify(service, times(1))
                 .getBookingsByOwnerId(eq(booking.getItem().getId()), eq(defaultParams));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByBooker_whenPageIsFull_thenResponseContainsNextCursorHeaderTest() throws Exception {
+        final BookingRequestParam params = BookingRequestParam.builder()
+                .from(0)
+                .size(1)
+                .state("ALL")
+                .cursor("cursor")
+                .build();
+        when(service.getBookingsByBookerId(eq(booker.getId()), eq(params)))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header(headerUserId, booker.getId())
+                        .param("size", params.getSize().toString())
+                        .param("cursor", params.getCursor())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Next-Cursor",
+                        new KeysetCursor(booking.getStart(), booking.getId()).encode()));
+
+        verify(service, times(1))
+                .getBookingsByBookerId(eq(booker.getId()), eq(params));
+    }
+
+    @Test
+    void getAllByOwner_whenPageIsNotFull_thenResponseHasNoNextCursorHeaderTest() throws Exception {
+        when(service.getBookingsByOwnerId(eq(item.getOwner().getId()), any(BookingRequestParam.class)))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(headerUserId, item.getOwner().getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void exportAllByOwner_whenInvoked_thenBookingsWrittenAsNdjsonTest() throws Exception {
+        final BookingDto secondBookingDto = BookingDto.builder()
+                .id(bookingDto.getId() + 1)
+                .start(bookingDto.getStart().plusDays(1))
+                .end(bookingDto.getEnd().plusDays(1))
+                .status(BookingStatus.APPROVED)
+                .booker(bookerDtoNested)
+                .build();
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(2);
+            consumer.accept(bookingDto);
+            consumer.accept(secondBookingDto);
+            return null;
+        }).when(service).exportBookingsByOwnerId(eq(item.getOwner().getId()), eq("ALL"), any());
+
+        final String body = mockMvc.perform(get("/bookings/owner/export")
+                        .header(headerUserId, item.getOwner().getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        // Каждая строка ответа - отдельный JSON-объект бронирования.
+        final String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(bookingDto.getId(), mapper.readValue(lines[0], BookingDto.class).getId());
+        assertEquals(secondBookingDto.getId(), mapper.readValue(lines[1], BookingDto.class).getId());
+        assertEquals(secondBookingDto.getStatus(), mapper.readValue(lines[1], BookingDto.class).getStatus());
+    }
+
+    @Test
+    void exportAllByOwner_whenOwnerNotFound_thenResponseStatusNotFoundWithJsonErrorTest() throws Exception {
+        doThrow(new NotFoundException("User not found"))
+                .when(service).exportBookingsByOwnerId(eq(item.getOwner().getId()), eq("ALL"), any());
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(headerUserId, item.getOwner().getId()))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
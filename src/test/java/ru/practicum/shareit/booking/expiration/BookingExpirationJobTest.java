@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.expiration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingExpirationJobTest {
+
+    BookingRepository bookingRepository;
+    PlatformTransactionManager transactionManager;
+    MeterRegistry registry;
+    BookingExpirationJob job;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        registry = new SimpleMeterRegistry();
+        job = new BookingExpirationJob(bookingRepository, transactionManager, registry, 2);
+    }
+
+    @Test
+    void expire_whenFullBatchesUpdated_thenNextBatchRequestedInNewTransactionTest() {
+        // Этап 1. Подготовка.
+        final LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.expireWaitingStartedBefore(now, 2))
+                .thenReturn(2, 2, 1);
+
+        // Этап 2. Выполнение.
+        final long count = job.expire(now);
+
+        // Этап 3. Проверка.
+        assertEquals(5L, count);
+        assertEquals(5.0, registry.get("shareit.bookings.expired").counter().count());
+        verify(bookingRepository, times(3))
+                .expireWaitingStartedBefore(now, 2);
+        verify(transactionManager, times(3))
+                .commit(any());
+    }
+
+    @Test
+    void expire_whenNothingToExpire_thenSingleUpdateExecutedTest() {
+        final LocalDateTime now = LocalDateTime.now();
+        when(bookingRepository.expireWaitingStartedBefore(now, 2))
+                .thenReturn(0);
+
+        assertEquals(0L, job.expire(now));
+        assertEquals(0.0, registry.get("shareit.bookings.expired").counter().count());
+        verify(bookingRepository, times(1))
+                .expireWaitingStartedBefore(any(), anyInt());
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingIntervalIndexInitializerTest {
+
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    BookingRepository bookingRepository;
+    BookingIntervalIndex intervalIndex;
+    BookingIntervalIndexInitializer initializer;
+
+    BookingDto.Nested storedBooking;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        intervalIndex = new BookingIntervalIndex();
+        initializer = new BookingIntervalIndexInitializer(bookingRepository, intervalIndex);
+
+        storedBooking = BookingDto.Nested.builder()
+                .id(1L)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.APPROVED)
+                .itemId(1L)
+                .bookerId(2L)
+                .build();
+    }
+
+    @Test
+    void rebuild_whenBookingApprovedDuringRebuild_thenApprovalNotLostTest() {
+        // Этап 1. Подготовка: пока выполняется выборка, в другом потоке подтверждается бронирование,
+        // которого в выборке нет - она прочитана до фиксации подтверждения.
+        when(bookingRepository.findByStatusAndEndAfterAndIdGreaterThan(eq(BookingStatus.APPROVED), any(), eq(0L),
+                any()))
+                .thenAnswer(invocation -> {
+                    Thread approval = new Thread(() -> intervalIndex.add(2L, 5L, start, start.plusDays(1)));
+                    approval.start();
+                    approval.join();
+
+                    return List.of(storedBooking);
+                });
+
+        // Этап 2. Выполнение.
+        initializer.rebuild();
+
+        // Этап 3. Проверка: в индексе и загруженное, и подтвержденное во время перестроения бронирования.
+        assertEquals(Optional.of(storedBooking.getId()), intervalIndex.findOverlapping(storedBooking.getItemId(),
+                storedBooking.getStart(), storedBooking.getEnd()));
+        assertEquals(Optional.of(5L), intervalIndex.findOverlapping(2L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void rebuild_whenBookingApprovedBeforeRebuildAndNotCommitted_thenBookingKeptTest() {
+        // Этап 1. Подготовка: подтверждение добавлено в индекс до фиксации и в выборку не попадет.
+        intervalIndex.add(2L, 5L, start, start.plusDays(1));
+        when(bookingRepository.findByStatusAndEndAfterAndIdGreaterThan(any(), any(), anyLong(), any()))
+                .thenReturn(List.of());
+
+        // Этап 2. Выполнение.
+        initializer.rebuild();
+
+        // Этап 3. Проверка.
+        assertEquals(Optional.of(5L), intervalIndex.findOverlapping(2L, start, start.plusDays(1)));
+    }
+}
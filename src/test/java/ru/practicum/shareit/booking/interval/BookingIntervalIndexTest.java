@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingIntervalIndexTest {
+
+    final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    final Long itemId = 1L;
+
+    BookingIntervalIndex intervalIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        intervalIndex = new BookingIntervalIndex();
+        intervalIndex.add(itemId, 1L, start, start.plusDays(2));
+        intervalIndex.add(itemId, 2L, start.plusDays(5), start.plusDays(6));
+    }
+
+    @Test
+    void findOverlapping_whenPeriodOverlaps_thenReturnBookingIdTest() {
+        assertEquals(Optional.of(1L), intervalIndex.findOverlapping(itemId, start.minusDays(1), start.plusHours(1)));
+        assertEquals(Optional.of(1L), intervalIndex.findOverlapping(itemId, start.plusDays(1), start.plusDays(3)));
+        assertEquals(Optional.of(2L), intervalIndex.findOverlapping(itemId, start.plusDays(3), start.plusDays(10)));
+        assertEquals(Optional.of(2L), intervalIndex.findOverlapping(itemId, start.minusDays(1), start.plusDays(10)));
+    }
+
+    @Test
+    void findOverlapping_whenPeriodIsFree_thenReturnEmptyTest() {
+        assertTrue(intervalIndex.findOverlapping(itemId, start.minusDays(1), start).isEmpty());
+        assertTrue(intervalIndex.findOverlapping(itemId, start.plusDays(2), start.plusDays(5)).isEmpty());
+        assertTrue(intervalIndex.findOverlapping(itemId, start.plusDays(6), start.plusDays(7)).isEmpty());
+        assertTrue(intervalIndex.findOverlapping(2L, start, start.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void remove_whenBookingRemoved_thenPeriodIsFreeTest() {
+        intervalIndex.remove(itemId, 1L);
+        intervalIndex.remove(2L, 1L);
+
+        assertTrue(intervalIndex.findOverlapping(itemId, start, start.plusDays(1)).isEmpty());
+        assertEquals(Optional.of(2L), intervalIndex.findOverlapping(itemId, start, start.plusDays(10)));
+    }
+
+    @Test
+    void add_whenBookingsFinished_thenTheyAreEvictedTest() {
+        intervalIndex.add(3L, 3L, start.minusDays(10), start.minusDays(9));
+        intervalIndex.add(3L, 4L, start, start.plusDays(1));
+
+        assertTrue(intervalIndex.findOverlapping(3L, start.minusDays(10), start.minusDays(9)).isEmpty());
+        assertEquals(Optional.of(4L), intervalIndex.findOverlapping(3L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void finishRebuild_whenRebuilt_thenIndexReplacedWithLoadedBookingsTest() {
+        intervalIndex.beginRebuild();
+        intervalIndex.remove(itemId, 1L);
+        intervalIndex.load(3L, 3L, start, start.plusDays(1));
+
+        // До подмены читается прежний индекс, в котором изменения тоже учтены.
+        assertTrue(intervalIndex.findOverlapping(3L, start, start.plusDays(1)).isEmpty());
+        assertTrue(intervalIndex.findOverlapping(itemId, start, start.plusDays(1)).isEmpty());
+
+        intervalIndex.finishRebuild();
+
+        assertEquals(Optional.of(3L), intervalIndex.findOverlapping(3L, start, start.plusDays(1)));
+        assertEquals(Optional.of(2L), intervalIndex.findOverlapping(itemId, start, start.plusDays(10)));
+    }
+
+    @Test
+    void add_whenRebuildInProgress_thenBookingKeptAfterRebuildTest() {
+        intervalIndex.beginRebuild();
+        intervalIndex.add(4L, 4L, start, start.plusDays(1));
+
+        assertEquals(Optional.of(4L), intervalIndex.findOverlapping(4L, start, start.plusDays(1)));
+
+        intervalIndex.finishRebuild();
+
+        assertEquals(Optional.of(4L), intervalIndex.findOverlapping(4L, start, start.plusDays(1)));
+    }
+
+    @Test
+    void load_whenRebuildNotStarted_thenIllegalStateExceptionThrownTest() {
+        assertThrows(IllegalStateException.class, () -> intervalIndex.load(3L, 3L, start, start.plusDays(1)));
+        assertThrows(IllegalStateException.class, () -> intervalIndex.finishRebuild());
+    }
+}
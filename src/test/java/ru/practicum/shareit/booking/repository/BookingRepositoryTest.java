@@ -0,0 +1,400 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingRepositoryTest {
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    // База данных хранит время с точностью до микросекунд, поэтому отбросим дробную часть секунд.
+    final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    User owner;
+    User booker;
+    Item item1;
+    Item item2;
+    Booking pastBooking;
+    Booking lastBooking;
+    Booking nextBooking;
+    Booking futureBooking;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder()
+                .email("owner@email")
+                .name("owner")
+                .build());
+        booker = userRepository.save(User.builder()
+                .email("booker@email")
+                .name("booker")
+                .build());
+        item1 = itemRepository.save(Item.builder()
+                .available(true)
+                .owner(owner)
+                .name("item1")
+                .description("item1Description")
+                .build());
+        item2 = itemRepository.save(Item.builder()
+                .available(true)
+                .owner(owner)
+                .name("item2")
+                .description("item2Description")
+                .build());
+        pastBooking = saveBooking(item1, now.minusDays(10), now.minusDays(9));
+        lastBooking = saveBooking(item1, now.minusDays(3), now.minusDays(2));
+        nextBooking = saveBooking(item1, now.minusDays(1), now.plusDays(1));
+        futureBooking = saveBooking(item1, now.plusDays(5), now.plusDays(6));
+    }
+
+    @Test
+    void findLastAndNextBookingsTest() {
+        final List<BookingDto.Nested> bookings = bookingRepository
+                .findLastAndNextBookings(List.of(item1.getId(), item2.getId()), now);
+
+        assertNotNull(bookings);
+        assertEquals(List.of(lastBooking.getId(), nextBooking.getId()),
+                bookings.stream().map(BookingDto.Nested::getId).collect(Collectors.toList()));
+        assertEquals(item1.getId(), bookings.get(0).getItemId());
+        assertEquals(booker.getId(), bookings.get(0).getBookerId());
+    }
+
+    @Test
+    void findByStatusAndEndAfterAndIdGreaterThanTest() {
+        final List<BookingDto.Nested> bookings = bookingRepository.findByStatusAndEndAfterAndIdGreaterThan(
+                BookingStatus.APPROVED, now, 0L, PageRequest.of(0, 1));
+
+        assertEquals(1, bookings.size());
+        assertEquals(nextBooking.getId(), bookings.get(0).getId());
+        assertEquals(List.of(futureBooking.getId()), bookingRepository.findByStatusAndEndAfterAndIdGreaterThan(
+                        BookingStatus.APPROVED, now, nextBooking.getId(), PageRequest.of(0, 10)).stream()
+                .map(BookingDto.Nested::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void existsByBookerIdAndItemIdAndStatusAndStartBeforeTest() {
+        saveBooking(item2, now.minusDays(2), now.minusDays(1), BookingStatus.REJECTED);
+        saveBooking(item2, now.plusDays(1), now.plusDays(2));
+
+        assertTrue(bookingRepository.existsByBookerIdAndItemIdAndStatusAndStartBefore(booker.getId(),
+                item1.getId(), BookingStatus.APPROVED, now));
+        // Отклоненное и будущее бронирование не дают права оставить отзыв.
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndStartBefore(booker.getId(),
+                item2.getId(), BookingStatus.APPROVED, now));
+        assertFalse(bookingRepository.existsByBookerIdAndItemIdAndStatusAndStartBefore(owner.getId(),
+                item1.getId(), BookingStatus.APPROVED, now));
+    }
+
+    @Test
+    void existsByItemIdAndStatusAndStartBeforeAndEndAfterTest() {
+        assertTrue(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item1.getId(),
+                BookingStatus.APPROVED, now.plusDays(6), now.plusDays(4)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item1.getId(),
+                BookingStatus.APPROVED, now.plusDays(5).minusHours(1), now.plusDays(1).plusHours(1)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item1.getId(),
+                BookingStatus.WAITING, now.plusDays(6), now.plusDays(4)));
+    }
+
+    @Test
+    void findBookedIntervalsTest() {
+        final List<IntervalDto> intervals = bookingRepository.findBookedIntervals(item1.getId(),
+                BookingStatus.APPROVED, now.minusDays(5), now.plusDays(30));
+
+        assertEquals(List.of(lastBooking.getStart(), nextBooking.getStart(), futureBooking.getStart()),
+                intervals.stream().map(IntervalDto::getStart).collect(Collectors.toList()));
+        assertTrue(bookingRepository.findBookedIntervals(item2.getId(),
+                BookingStatus.APPROVED, now.minusDays(5), now.plusDays(30)).isEmpty());
+    }
+
+    @Test
+    void findByItemIdsAndStatusAndPeriodTest() {
+        final List<BookingDto.Nested> bookings = bookingRepository.findByItemIdsAndStatusAndPeriod(
+                List.of(item1.getId(), item2.getId()), BookingStatus.APPROVED, now.minusDays(5), now.plusDays(5));
+
+        assertEquals(List.of(lastBooking.getId(), nextBooking.getId()),
+                bookings.stream().map(BookingDto.Nested::getId).sorted().collect(Collectors.toList()));
+        assertTrue(bookings.stream().allMatch(booking -> booking.getItemId().equals(item1.getId())));
+    }
+
+    @Test
+    void findAllWithSeekConditionTest() {
+        // Этап 1: получим первую страницу, отсортированную по убыванию (start, id).
+        final QBooking booking = QBooking.booking;
+        final PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "start", "id"));
+        final List<Booking> firstPage = bookingRepository.findAll(booking.item.id.eq(item1.getId()), pageRequest)
+                .getContent();
+
+        assertEquals(List.of(futureBooking.getId(), nextBooking.getId()),
+                firstPage.stream().map(Booking::getId).collect(Collectors.toList()));
+
+        // Этап 2: продолжим выборку с позиции последнего бронирования без смещения.
+        final Booking last = firstPage.get(1);
+        final List<Booking> secondPage = bookingRepository.findAll(booking.item.id.eq(item1.getId())
+                        .and(booking.start.lt(last.getStart())
+                                .or(booking.start.eq(last.getStart()).and(booking.id.lt(last.getId())))),
+                pageRequest).getContent();
+
+        assertEquals(List.of(lastBooking.getId(), pastBooking.getId()),
+                secondPage.stream().map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllAsDto_whenOwnerPage_thenSingleStatementWithItemBookingsTest() {
+        // Этап 1. Подготовка: добавим бронирования второй вещи и очистим контекст, чтобы ничего не бралось из кеша.
+        saveBooking(item2, now.minusDays(4), now.minusDays(3));
+        saveBooking(item2, now.plusDays(1), now.plusDays(2));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // Этап 2. Выполнение: получим страницу бронирований владельца.
+        final QBooking booking = QBooking.booking;
+        final PageRequest pageRequest = PageRequest.of(0, 30, Sort.by(Sort.Direction.DESC, "start", "id"));
+        final List<BookingDto> bookings = bookingRepository.findAllAsDto(booking.item.owner.id.eq(owner.getId()),
+                pageRequest, true);
+
+        // Этап 3. Проверка: вся страница получена одним запросом.
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(6, bookings.size());
+        assertEquals(futureBooking.getId(), bookings.get(0).getId());
+
+        final BookingDto first = bookings.get(0);
+        assertEquals(futureBooking.getStart(), first.getStart());
+        assertEquals(futureBooking.getEnd(), first.getEnd());
+        assertEquals(BookingStatus.APPROVED, first.getStatus());
+        assertEquals(item1.getId(), first.getItem().getId());
+        assertEquals(item1.getName(), first.getItem().getName());
+        assertEquals(item1.getDescription(), first.getItem().getDescription());
+        assertTrue(first.getItem().getAvailable());
+        assertEquals(0, first.getItem().getRequestId());
+        assertEquals(lastBooking.getId(), first.getItem().getLastBookingId());
+        assertEquals(nextBooking.getId(), first.getItem().getNextBookingId());
+        assertEquals(booker.getId(), first.getBooker().getId());
+        assertEquals(booker.getEmail(), first.getBooker().getEmail());
+        assertEquals(booker.getName(), first.getBooker().getName());
+
+        assertTrue(bookings.stream()
+                .filter(bookingDto -> bookingDto.getItem().getId().equals(item2.getId()))
+                .allMatch(bookingDto -> bookingDto.getItem().getLastBookingId() != null
+                        && bookingDto.getItem().getNextBookingId() != null
+                        && !bookingDto.getItem().getLastBookingId().equals(lastBooking.getId())));
+    }
+
+    @Test
+    void findAllAsDto_whenBookingsEndAtSameTime_thenSameLastAndNextAsFindLastAndNextBookingsTest() {
+        // Этап 1. Подготовка: у второй вещи по два бронирования с одинаковой датой окончания.
+        final Booking firstLast = saveBooking(item2, now.minusDays(4), now.minusDays(3));
+        saveBooking(item2, now.minusDays(5), now.minusDays(3));
+        final Booking firstNext = saveBooking(item2, now.plusDays(1), now.plusDays(2));
+        saveBooking(item2, now.plusHours(1), now.plusDays(2));
+
+        // Этап 2. Выполнение.
+        final List<BookingDto> bookings = bookingRepository.findAllAsDto(
+                QBooking.booking.item.id.eq(item2.getId()), PageRequest.of(0, 10, Sort.by("id")), true);
+        final List<BookingDto.Nested> lastAndNext = bookingRepository.findLastAndNextBookings(
+                List.of(item2.getId()), now);
+
+        // Этап 3. Проверка: оба запроса выбирают бронирование с наименьшим id.
+        assertEquals(firstLast.getId(), lastAndNext.get(0).getId());
+        assertEquals(firstNext.getId(), lastAndNext.stream()
+                .filter(booking -> booking.getEnd().isAfter(now))
+                .findFirst()
+                .orElseThrow()
+                .getId());
+        assertTrue(bookings.stream().allMatch(booking -> booking.getItem().getLastBookingId()
+                .equals(firstLast.getId()) && booking.getItem().getNextBookingId().equals(firstNext.getId())));
+    }
+
+    @Test
+    void findAllAsDto_whenBookerPage_thenItemBookingsAreNotSelectedTest() {
+        final QBooking booking = QBooking.booking;
+        final PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+        final List<BookingDto> bookings = bookingRepository.findAllAsDto(booking.booker.id.eq(booker.getId()),
+                pageRequest, false);
+
+        assertEquals(List.of(futureBooking.getId(), nextBooking.getId()),
+                bookings.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        assertNull(bookings.get(0).getItem().getLastBookingId());
+        assertNull(bookings.get(0).getItem().getNextBookingId());
+    }
+
+    @Test
+    void streamAllAsDto_whenOwnerBookings_thenAllStreamedInOrderWithoutManagedEntitiesTest() {
+        // Этап 1. Подготовка: очистим контекст, чтобы видеть только сущности, загруженные при чтении.
+        entityManager.flush();
+        entityManager.clear();
+
+        // Этап 2. Выполнение: прочитаем все бронирования владельца потоком.
+        final QBooking booking = QBooking.booking;
+        final List<BookingDto> bookings = new ArrayList<>();
+        bookingRepository.streamAllAsDto(booking.item.owner.id.eq(owner.getId()),
+                Sort.by(Sort.Direction.DESC, "start", "id"), true, bookings::add);
+
+        // Этап 3. Проверка: получены все бронирования в порядке страниц, а в контексте персистентности
+        // не осталось сущностей - расход памяти не зависит от числа прочитанных строк.
+        assertEquals(List.of(futureBooking.getId(), nextBooking.getId(), lastBooking.getId(), pastBooking.getId()),
+                bookings.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        assertEquals(lastBooking.getId(), bookings.get(0).getItem().getLastBookingId());
+        assertEquals(nextBooking.getId(), bookings.get(0).getItem().getNextBookingId());
+        assertEquals(0, entityManager.getEntityManager()
+                .unwrap(Session.class)
+                .getStatistics()
+                .getEntityCount());
+    }
+
+    @Test
+    void saveAll_whenManyBookings_thenInsertsAreBatchedTest() {
+        // Этап 1. Подготовка.
+        final int bookingsCount = 120;
+        final List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingsCount; i++) {
+            bookings.add(Booking.builder()
+                    .item(item2)
+                    .booker(booker)
+                    .start(now.plusDays(i * 2L + 1))
+                    .end(now.plusDays(i * 2L + 2))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // Этап 2. Выполнение.
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        // Этап 3. Проверка: вставки отправлены пакетами по 50, идентификаторы выделены блоками из последовательности.
+        assertEquals(bookingsCount, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "Expected batched inserts, but prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertTrue(bookings.stream().allMatch(booking -> booking.getId() != null));
+    }
+
+    @Test
+    void findByIdForUpdateTest() {
+        assertEquals(item1, itemRepository.findByIdForUpdate(item1.getId()).orElseThrow());
+    }
+
+    @Test
+    void updateStatusIfWaitingTest() {
+        Booking waitingBooking = bookingRepository.save(Booking.builder()
+                .item(item2)
+                .booker(booker)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+        entityManager.flush();
+
+        // Чужой владелец не может изменить статус.
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(waitingBooking.getId(), booker.getId(),
+                BookingStatus.APPROVED));
+        assertEquals(1, bookingRepository.updateStatusIfWaiting(waitingBooking.getId(), owner.getId(),
+                BookingStatus.APPROVED));
+
+        // Второе обновление не проходит: бронирование больше не ожидает подтверждения.
+        assertEquals(0, bookingRepository.updateStatusIfWaiting(waitingBooking.getId(), owner.getId(),
+                BookingStatus.REJECTED));
+
+        Booking updatedBooking = bookingRepository.findById(waitingBooking.getId()).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, updatedBooking.getStatus());
+        assertEquals(waitingBooking.getVersion() + 1, updatedBooking.getVersion());
+    }
+
+    @Test
+    void expireWaitingStartedBeforeTest() {
+        List<Booking> startedBookings = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            startedBookings.add(saveBooking(item2, now.minusHours(i), now.plusDays(1), BookingStatus.WAITING));
+        }
+        Booking futureWaitingBooking = saveBooking(item2, now.plusDays(2), now.plusDays(3), BookingStatus.WAITING);
+        entityManager.flush();
+
+        // Бронирования обрабатываются порциями не больше limit, пока не останется начавшихся.
+        assertEquals(2, bookingRepository.expireWaitingStartedBefore(now, 2));
+        assertEquals(1, bookingRepository.expireWaitingStartedBefore(now, 2));
+        assertEquals(0, bookingRepository.expireWaitingStartedBefore(now, 2));
+
+        for (Booking booking : startedBookings) {
+            Booking expiredBooking = bookingRepository.findById(booking.getId()).orElseThrow();
+            assertEquals(BookingStatus.EXPIRED, expiredBooking.getStatus());
+            assertEquals(booking.getVersion() + 1, expiredBooking.getVersion());
+        }
+
+        // Будущие и уже подтвержденные бронирования не меняются.
+        assertEquals(BookingStatus.WAITING,
+                bookingRepository.findById(futureWaitingBooking.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED,
+                bookingRepository.findById(pastBooking.getId()).orElseThrow().getStatus());
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private Booking saveBooking(Item item, LocalDateTime start, LocalDateTime end) {
+        return saveBooking(item, start, end, BookingStatus.APPROVED);
+    }
+
+    private Booking saveBooking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceImplTest {
+
+    final Long userId = 1L;
+    final Long itemId = 1L;
+    final LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+    final LocalDateTime to = LocalDateTime.of(2030, 1, 31, 0, 0);
+
+    BookingRepository repository;
+    ItemService itemService;
+    UserService userService;
+    AvailabilityService availabilityService;
+
+    @BeforeEach
+    void beforeEach() {
+        repository = mock(BookingRepository.class);
+        itemService = mock(ItemService.class);
+        userService = mock(UserService.class);
+        availabilityService = new AvailabilityServiceImpl(repository, itemService, userService);
+    }
+
+    @Test
+    void getFreeIntervals_whenBookingsOverlapAndTouchBounds_thenReturnGapsBetweenThemTest() {
+        // Первое бронирование начинается до периода, второе и третье пересекаются между собой.
+        when(repository.findBookedIntervals(itemId, BookingStatus.APPROVED, from, to)).thenReturn(List.of(
+                new IntervalDto(from.minusDays(2), from.plusDays(2)),
+                new IntervalDto(from.plusDays(5), from.plusDays(10)),
+                new IntervalDto(from.plusDays(6), from.plusDays(8)),
+                new IntervalDto(from.plusDays(10), from.plusDays(12))));
+
+        final List<IntervalDto> free = availabilityService.getFreeIntervals(userId, itemId, from, to);
+
+        assertEquals(List.of(
+                new IntervalDto(from.plusDays(2), from.plusDays(5)),
+                new IntervalDto(from.plusDays(12), to)), free);
+        verify(itemService, times(1)).getById(itemId);
+    }
+
+    @Test
+    void getFreeIntervals_whenNoBookings_thenWholePeriodIsFreeTest() {
+        assertEquals(List.of(new IntervalDto(from, to)), availabilityService.getFreeIntervals(userId, itemId, from, to));
+    }
+
+    @Test
+    void getFreeIntervals_whenBookingCoversPeriod_thenReturnEmptyListTest() {
+        when(repository.findBookedIntervals(itemId, BookingStatus.APPROVED, from, to))
+                .thenReturn(List.of(new IntervalDto(from.minusDays(1), to.plusDays(1))));
+
+        assertTrue(availabilityService.getFreeIntervals(userId, itemId, from, to).isEmpty());
+    }
+
+    @Test
+    void getFreeIntervals_whenPeriodIsIncorrect_thenBadRequestExceptionThrownTest() {
+        assertThrows(BadRequestException.class, () -> availabilityService.getFreeIntervals(userId, itemId, to, from));
+        assertThrows(BadRequestException.class, () -> availabilityService.getFreeIntervals(userId, itemId, from, from));
+        verify(repository, never()).findBookedIntervals(any(), any(), any(), any());
+    }
+
+    @Test
+    void getFreeIntervals_whenItemNotFound_thenNotFoundExceptionThrownTest() {
+        when(itemService.getById(itemId)).thenThrow(new NotFoundException("Item", itemId));
+
+        assertThrows(NotFoundException.class, () -> availabilityService.getFreeIntervals(userId, itemId, from, to));
+        verify(repository, never()).findBookedIntervals(any(), any(), any(), any());
+    }
+
+    @Test
+    void getFreeIntervals_whenUserNotFound_thenNotFoundExceptionThrownTest() {
+        doThrow(new NotFoundException("User", userId)).when(userService).checkUserExist(userId);
+
+        assertThrows(NotFoundException.class, () -> availabilityService.getFreeIntervals(userId, itemId, from, to));
+        verify(repository, never()).findBookedIntervals(any(), any(), any(), any());
+    }
+}
@@ -8,24 +8,39 @@ import org.mockito.Captor;
 import org.mockito.InOrder;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRequestParam;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static java.time.LocalDateTime.now;
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,9 +53,14 @@ class BookingServiceImplTest {
     @Captor
     ArgumentCaptor<Booking> bookingCaptor;
 
+    @Captor
+    ArgumentCaptor<Collection<Booking>> bookingsCaptor;
+
     BookingRepository repository;
     UserService userService;
     ItemService itemService;
+    BookingIntervalIndex intervalIndex;
+    ItemBookingSummaryService summaryService;
     BookingService bookingService;
 
     User booker;
@@ -53,7 +73,9 @@ class BookingServiceImplTest {
         repository = mock(BookingRepository.class);
         userService = mock(UserService.class);
         itemService = mock(ItemService.class);
-        bookingService = new BookingServiceImpl(repository, userService, itemService);
+        intervalIndex = new BookingIntervalIndex();
+        summaryService = mock(ItemBookingSummaryService.class);
+        bookingService = new BookingServiceImpl(repository, userService, itemService, intervalIndex, summaryService);
 
         booker = User.builder()
                 .id(1L)
@@ -116,7 +138,7 @@ class BookingServiceImplTest {
                 .status(BookingStatus.WAITING)
                 .build();
 
-        when(itemService.getById(item.getId())).thenReturn(item);
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
         when(userService.getById(booking.getBooker().getId())).thenReturn(booking.getBooker());
         when(repository.save(any())).thenReturn(exactingBooking);
 
@@ -145,21 +167,26 @@ class BookingServiceImplTest {
         // Проверим вызовы.
         InOrder inOrder = inOrder(itemService, userService, repository);
         inOrder.verify(itemService, times(1))
-                .getById(item.getId());
+                .getByIdForUpdate(item.getId());
+        inOrder.verify(repository, times(1))
+                .existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                        bookingToSave.getEnd(), bookingToSave.getStart());
         inOrder.verify(userService, times(1))
                 .getById(booking.getBooker().getId());
         inOrder.verify(repository, times(1))
                 .save(savedBooking);
+        verify(summaryService, times(1))
+                .onBookingsCreated(List.of(exactingBooking));
     }
 
     @Test
     void save_whenSaveBookingWithNotAvailableItem_thenBadRequestExceptionThrownTest() {
         item.setAvailable(false);
-        when(itemService.getById(item.getId())).thenReturn(item);
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
 
         assertThrows(BadRequestException.class, () -> bookingService.save(booking.getBooker().getId(), booking, item.getId()));
         verify(itemService, times(1))
-                .getById(item.getId());
+                .getByIdForUpdate(item.getId());
         verify(repository, never())
                 .save(any());
     }
@@ -168,11 +195,11 @@ class BookingServiceImplTest {
     void save_whenSaveBookingWithEndIsBeforeNow_thenBadRequestExceptionThrownTest() {
         booking.setStart(now().plusDays(2));
         booking.setEnd(now().minusSeconds(1));
-        when(itemService.getById(item.getId())).thenReturn(item);
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
 
         assertThrows(BadRequestException.class, () -> bookingService.save(booking.getBooker().getId(), booking, item.getId()));
         verify(itemService, times(1))
-                .getById(item.getId());
+                .getByIdForUpdate(item.getId());
         verify(repository, never())
                 .save(any());
     }
@@ -181,11 +208,11 @@ class BookingServiceImplTest {
     void save_whenSaveBookingWithStartIsBeforeNow_thenBadRequestExceptionThrownTest() {
         booking.setStart(now().minusSeconds(1));
         booking.setEnd(now().plusDays(2));
-        when(itemService.getById(item.getId())).thenReturn(item);
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
 
         assertThrows(BadRequestException.class, () -> bookingService.save(booking.getBooker().getId(), booking, item.getId()));
         verify(itemService, times(1))
-                .getById(item.getId());
+                .getByIdForUpdate(item.getId());
         verify(repository, never())
                 .save(any());
     }
@@ -194,11 +221,11 @@ class BookingServiceImplTest {
     void save_whenSaveBookingWithEndBeforeStart_thenBadRequestExceptionThrownTest() {
         booking.setStart(now().plusDays(3));
         booking.setEnd(now().plusDays(2));
-        when(itemService.getById(item.getId())).thenReturn(item);
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
 
         assertThrows(BadRequestException.class, () -> bookingService.save(booking.getBooker().getId(), booking, item.getId()));
         verify(itemService, times(1))
-                .getById(item.getId());
+                .getByIdForUpdate(item.getId());
         verify(repository, never())
                 .save(any());
     }
@@ -206,106 +233,177 @@ class BookingServiceImplTest {
     @Test
     void save_whenSaveBookingWithEqualsBookerAndItemOwner_thenNotFoundExceptionThrownTest() {
         booking.getItem().setOwner(booking.getBooker());
-        when(itemService.getById(item.getId())).thenReturn(item);
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
 
         assertThrows(NotFoundException.class, () -> bookingService.save(booking.getBooker().getId(), booking, item.getId()));
         verify(itemService, times(1))
-                .getById(item.getId());
+                .getByIdForUpdate(item.getId());
         verify(repository, never())
                 .save(any());
     }
 
     @Test
-    void approve_whenApproveTrue_thenReturnApprovedBookingTest() {
-        // Этап 1. Подготовка.
-        booking.setStatus(BookingStatus.WAITING);
-        Booking exactingBooking = Booking.builder()
-                .id(booking.getId())
-                .start(booking.getStart())
-                .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
-                .status(BookingStatus.APPROVED)
-                .build();
-        when(repository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(repository.save(any())).thenReturn(exactingBooking);
-
-        // Этап 2. Выполнение.
-        Booking returnedBooking = bookingService.approve(booking.getItem().getOwner().getId(), booking.getId(), true);
+    void save_whenItemIsBookedInIndexAndDatabase_thenBadRequestExceptionThrownTest() {
+        intervalIndex.add(item.getId(), 10L, booking.getStart().minusDays(1), booking.getStart().plusDays(1));
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
+        when(repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                booking.getEnd(), booking.getStart())).thenReturn(true);
 
-        // Этап 3. Проверка.
-        verify(repository).save(bookingCaptor.capture());
-        Booking savedBooking = bookingCaptor.getValue();
+        assertThrows(BadRequestException.class, () -> bookingService.save(booker.getId(), booking, item.getId()));
+        verify(repository, never())
+                .save(any());
+    }
 
-        // Проверим, что сохраняемое значение совпадает с ожидаемым.
-        assertEquals(exactingBooking.getStart(), savedBooking.getStart());
-        assertEquals(exactingBooking.getEnd(), savedBooking.getEnd());
-        assertEquals(exactingBooking.getItem(), savedBooking.getItem());
-        assertEquals(exactingBooking.getBooker(), savedBooking.getBooker());
-        assertEquals(exactingBooking.getStatus(), savedBooking.getStatus());
+    @Test
+    void save_whenIndexedBookingDeleted_thenBookingSavedAndIndexEntryRemovedTest() {
+        // Запись индекса осталась от удаленного бронирования, в базе данных пересечения нет.
+        intervalIndex.add(item.getId(), 10L, booking.getStart().minusDays(1), booking.getStart().plusDays(1));
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
+        when(userService.getById(booker.getId())).thenReturn(booker);
+        when(repository.save(any())).thenReturn(booking);
 
-        // Проверим, что возвращаемое значение соответствует ожидаемому.
-        assertEquals(exactingBooking.getId(), returnedBooking.getId());
-        assertEquals(exactingBooking.getStart(), returnedBooking.getStart());
-        assertEquals(exactingBooking.getEnd(), returnedBooking.getEnd());
-        assertEquals(exactingBooking.getItem(), returnedBooking.getItem());
-        assertEquals(exactingBooking.getBooker(), returnedBooking.getBooker());
-        assertEquals(exactingBooking.getStatus(), returnedBooking.getStatus());
+        bookingService.save(booker.getId(), booking, item.getId());
 
-        // Проверим вызовы.
         verify(repository, times(1))
-                .findById(booking.getId());
+                .existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                        booking.getEnd(), booking.getStart());
         verify(repository, times(1))
-                .save(savedBooking);
+                .save(any());
+        assertTrue(intervalIndex.findOverlapping(item.getId(), booking.getStart(), booking.getEnd()).isEmpty());
     }
 
     @Test
-    void approve_whenApproveFalse_thenReturnRejectedBookingTest() {
+    void save_whenIndexHasNoOverlapButDatabaseHas_thenBadRequestExceptionThrownTest() {
+        // Бронирование подтверждено на другом экземпляре приложения, поэтому в индексе этого экземпляра его нет.
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
+        when(repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                booking.getEnd(), booking.getStart())).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.save(booker.getId(), booking, item.getId()));
+        verify(repository, never())
+                .save(any());
+    }
+
+    @Test
+    void save_whenItemIsBookedInDatabase_thenBadRequestExceptionThrownTest() {
+        when(itemService.getByIdForUpdate(item.getId())).thenReturn(item);
+        when(repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                booking.getEnd(), booking.getStart())).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.save(booker.getId(), booking, item.getId()));
+        verify(repository, never())
+                .save(any());
+    }
+
+    @Test
+    void approve_whenApprovedBookingOverlaps_thenBadRequestExceptionThrownTest() {
+        booking.setStatus(BookingStatus.WAITING);
+        mockOwnerBooking(booking);
+        when(repository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                booking.getEnd(), booking.getStart())).thenReturn(true);
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.approve(item.getOwner().getId(), booking.getId(), true));
+        verify(itemService, times(1))
+                .getByIdForUpdate(item.getId());
+        verify(repository, never())
+                .updateStatusIfWaiting(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void approve_whenApproveTrue_thenReturnApprovedBookingWithoutLoadingEntitiesTest() {
         // Этап 1. Подготовка.
         booking.setStatus(BookingStatus.WAITING);
-        Booking exactingBooking = Booking.builder()
-                .id(booking.getId())
-                .start(booking.getStart())
-                .end(booking.getEnd())
-                .item(booking.getItem())
-                .booker(booking.getBooker())
-                .status(BookingStatus.REJECTED)
-                .build();
-        when(repository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        when(repository.save(any())).thenReturn(exactingBooking);
+        final Long ownerId = booking.getItem().getOwner().getId();
+        mockOwnerBooking(booking);
+        when(repository.updateStatusIfWaiting(booking.getId(), ownerId, BookingStatus.APPROVED)).thenReturn(1);
 
         // Этап 2. Выполнение.
-        Booking returnedBooking = bookingService.approve(booking.getItem().getOwner().getId(), booking.getId(), false);
+        BookingDto returnedBooking = bookingService.approve(ownerId, booking.getId(), true);
 
         // Этап 3. Проверка.
-        verify(repository).save(bookingCaptor.capture());
-        Booking savedBooking = bookingCaptor.getValue();
+        assertEquals(booking.getId(), returnedBooking.getId());
+        assertEquals(BookingStatus.APPROVED, returnedBooking.getStatus());
+        assertEquals(item.getId(), returnedBooking.getItem().getId());
+        assertEquals(booker.getId(), returnedBooking.getBooker().getId());
+        assertEquals(booking.getId(), intervalIndex.findOverlapping(item.getId(), booking.getStart(), booking.getEnd())
+                .orElseThrow());
+
+        // Проверим вызовы: бронирование прочитано одной выборкой колонок, статус изменен условным обновлением
+        // под блокировкой вещи, сущность бронирования не загружалась и не сохранялась.
+        InOrder inOrder = inOrder(itemService, repository, summaryService);
+        inOrder.verify(repository, times(1))
+                .findAllAsDto(any(), any(), eq(true));
+        inOrder.verify(itemService, times(1))
+                .getByIdForUpdate(item.getId());
+        inOrder.verify(repository, times(1))
+                .updateStatusIfWaiting(booking.getId(), ownerId, BookingStatus.APPROVED);
+        inOrder.verify(summaryService, times(1))
+                .onBookingApproved(item.getId(), booking.getStart(), booking.getEnd());
+        verify(repository, never())
+                .findById(anyLong());
+        verify(repository, never())
+                .save(any());
+    }
 
-        // Проверим, что сохраняемое значение совпадает с ожидаемым.
-        assertEquals(exactingBooking.getStart(), savedBooking.getStart());
-        assertEquals(exactingBooking.getEnd(), savedBooking.getEnd());
-        assertEquals(exactingBooking.getItem(), savedBooking.getItem());
-        assertEquals(exactingBooking.getBooker(), savedBooking.getBooker());
-        assertEquals(exactingBooking.getStatus(), savedBooking.getStatus());
+    @Test
+    void approve_whenStatusChangedConcurrently_thenConflictExceptionThrownTest() {
+        booking.setStatus(BookingStatus.WAITING);
+        final Long ownerId = booking.getItem().getOwner().getId();
+        mockOwnerBooking(booking);
+        when(repository.updateStatusIfWaiting(booking.getId(), ownerId, BookingStatus.APPROVED)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> bookingService.approve(ownerId, booking.getId(), true));
+        verify(summaryService, never())
+                .onBookingApproved(any(), any(), any());
+        assertTrue(intervalIndex.findOverlapping(item.getId(), booking.getStart(), booking.getEnd()).isEmpty());
+    }
 
-        // Проверим, что возвращаемое значение соответствует ожидаемому.
-        assertEquals(exactingBooking.getId(), returnedBooking.getId());
-        assertEquals(exactingBooking.getStart(), returnedBooking.getStart());
-        assertEquals(exactingBooking.getEnd(), returnedBooking.getEnd());
-        assertEquals(exactingBooking.getItem(), returnedBooking.getItem());
-        assertEquals(exactingBooking.getBooker(), returnedBooking.getBooker());
-        assertEquals(exactingBooking.getStatus(), returnedBooking.getStatus());
+    @Test
+    void approve_whenApproveFalse_thenReturnRejectedBookingWithoutLoadingEntitiesTest() {
+        // Этап 1. Подготовка.
+        final Long ownerId = booking.getItem().getOwner().getId();
+        booking.setStatus(BookingStatus.REJECTED);
+        mockOwnerBooking(booking);
+        when(repository.updateStatusIfWaiting(booking.getId(), ownerId, BookingStatus.REJECTED)).thenReturn(1);
 
-        // Проверим вызовы.
-        verify(repository, times(1))
-                .findById(booking.getId());
-        verify(repository, times(1))
-                .save(savedBooking);
+        // Этап 2. Выполнение.
+        BookingDto returnedBooking = bookingService.approve(ownerId, booking.getId(), false);
+
+        // Этап 3. Проверка.
+        assertEquals(booking.getId(), returnedBooking.getId());
+        assertEquals(BookingStatus.REJECTED, returnedBooking.getStatus());
+
+        // Ответ читается одной выборкой колонок после обновления; вещь не блокируется.
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository, times(1))
+                .updateStatusIfWaiting(booking.getId(), ownerId, BookingStatus.REJECTED);
+        inOrder.verify(repository, times(1))
+                .findAllAsDto(any(), any(), eq(true));
+        verify(repository, never())
+                .findById(anyLong());
+        verify(itemService, never())
+                .getByIdForUpdate(anyLong());
+        verify(summaryService, never())
+                .onBookingApproved(any(), any(), any());
+    }
+
+    @Test
+    void approve_whenRejectedBookingIsNotWaiting_thenBadRequestExceptionThrownTest() {
+        booking.setStatus(BookingStatus.APPROVED);
+        when(repository.updateStatusIfWaiting(anyLong(), anyLong(), any())).thenReturn(0);
+        when(repository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.approve(booking.getItem().getOwner().getId(), booking.getId(), false));
     }
 
     @Test
     void approve_whenEqualsBookerAndItemOwner_thenReturnNotFoundExceptionTest() {
         booking.getItem().setOwner(booking.getBooker());
+        // Выборка ограничена вещами владельца; заказчик не найдет свое бронирование среди них.
+        when(repository.findAllAsDto(any(), any(), eq(true))).thenReturn(List.of());
         when(repository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class,
@@ -313,20 +411,21 @@ class BookingServiceImplTest {
         verify(repository, times(1))
                 .findById(booking.getId());
         verify(repository, never())
-                .save(any());
+                .updateStatusIfWaiting(anyLong(), anyLong(), any());
     }
 
     @Test
     void approve_whenBookingStatusIsNotWaiting_thenReturnBadRequestExceptionTest() {
         booking.setStatus(BookingStatus.REJECTED);
+        mockOwnerBooking(booking);
         when(repository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         assertThrows(BadRequestException.class,
                 () -> bookingService.approve(booking.getItem().getOwner().getId(), booking.getId(), true));
-        verify(repository, times(1))
-                .findById(booking.getId());
+        verify(itemService, never())
+                .getByIdForUpdate(anyLong());
         verify(repository, never())
-                .save(any());
+                .updateStatusIfWaiting(anyLong(), anyLong(), any());
     }
 
     @Test
@@ -370,21 +469,22 @@ class BookingServiceImplTest {
                 .size(30)
                 .state("CURRENT")
                 .build();
-        final Page<Booking> foundBookings = new PageImpl<>(List.of(booking));
-        final Sort sort = Sort.by("Start").descending();
+        final List<BookingDto> foundBookings = List.of(BookingDto.builder().id(booking.getId()).build());
+        final Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
         final MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), sort);
 
-        when(repository.findAll(any(BooleanExpression.class), eq(pageRequest)))
+        when(repository.findAllAsDto(any(BooleanExpression.class), eq(pageRequest), eq(false)))
                 .thenReturn(foundBookings);
 
-        List<Booking> returnedBookings = bookingService.getBookingsByBookerId(booking.getBooker().getId(), params);
+        List<BookingDto> returnedBookings = bookingService.getBookingsByBookerId(booking.getBooker().getId(), params);
 
         assertNotNull(returnedBookings);
         assertEquals(1, returnedBookings.size());
-        assertEquals(booking, returnedBookings.get(0));
+        assertEquals(booking.getId(), returnedBookings.get(0).getId());
 
+        // Заказчику последнее и следующее бронирования вещи не вычисляются.
         verify(repository, times(1))
-                .findAll(any(BooleanExpression.class), eq(pageRequest));
+                .findAllAsDto(any(BooleanExpression.class), eq(pageRequest), eq(false));
     }
 
     @Test
@@ -394,21 +494,54 @@ class BookingServiceImplTest {
                 .size(30)
                 .state("PAST")
                 .build();
-        final Page<Booking> foundBookings = new PageImpl<>(List.of(booking));
-        final Sort sort = Sort.by("Start").descending();
+        final List<BookingDto> foundBookings = List.of(BookingDto.builder().id(booking.getId()).build());
+        final Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
         final MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), sort);
         final Long ItemOwnerId = booking.getItem().getOwner().getId();
-        when(repository.findAll(any(BooleanExpression.class), eq(pageRequest)))
+        when(repository.findAllAsDto(any(BooleanExpression.class), eq(pageRequest), eq(true)))
                 .thenReturn(foundBookings);
 
-        List<Booking> returnedBookings = bookingService.getBookingsByOwnerId(ItemOwnerId, params);
+        List<BookingDto> returnedBookings = bookingService.getBookingsByOwnerId(ItemOwnerId, params);
 
         assertNotNull(returnedBookings);
         assertEquals(1, returnedBookings.size());
-        assertEquals(booking, returnedBookings.get(0));
+        assertEquals(booking.getId(), returnedBookings.get(0).getId());
 
         verify(repository, times(1))
-                .findAll(any(BooleanExpression.class), eq(pageRequest));
+                .findAllAsDto(any(BooleanExpression.class), eq(pageRequest), eq(true));
+    }
+
+    @Test
+    void exportBookingsByOwnerId_whenOwnerExists_thenBookingsStreamedToConsumerTest() {
+        // Этап 1. Подготовка.
+        final BookingDto foundBooking = BookingDto.builder().id(booking.getId()).build();
+        final Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
+        final Long itemOwnerId = booking.getItem().getOwner().getId();
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(3);
+            consumer.accept(foundBooking);
+            return null;
+        }).when(repository).streamAllAsDto(any(BooleanExpression.class), eq(sort), eq(true), any());
+
+        // Этап 2. Выполнение.
+        final List<BookingDto> exportedBookings = new ArrayList<>();
+        bookingService.exportBookingsByOwnerId(itemOwnerId, "ALL", exportedBookings::add);
+
+        // Этап 3. Проверка.
+        assertEquals(List.of(foundBooking), exportedBookings);
+        verify(userService, times(1))
+                .checkUserExist(itemOwnerId);
+        verify(repository, never())
+                .findAllAsDto(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void exportBookingsByOwnerId_whenStatusIsNotCorrect_thenBadRequestExceptionThrownTest() {
+        assertThrows(BadRequestException.class,
+                () -> bookingService.exportBookingsByOwnerId(booking.getItem().getOwner().getId(), "IncorrectStatus",
+                        bookingDto -> { }));
+        verify(repository, never())
+                .streamAllAsDto(any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -421,6 +554,147 @@ class BookingServiceImplTest {
         assertThrows(BadRequestException.class,
                 () -> bookingService.getBookingsByOwnerId(booking.getItem().getId(), params));
         verify(repository, never())
-                .findAll(any(BooleanExpression.class), any(MyPageRequest.class));
+                .findAllAsDto(any(BooleanExpression.class), any(MyPageRequest.class), anyBoolean());
+    }
+
+    @Test
+    void getBookingsByBookerId_whenCursorIsPassed_thenSeekWithoutOffsetTest() {
+        final BookingRequestParam params = BookingRequestParam.builder()
+                .from(60)
+                .size(30)
+                .state("ALL")
+                .cursor(new KeysetCursor(booking.getStart(), booking.getId()).encode())
+                .build();
+        final PageRequest pageRequest = PageRequest.of(0, params.getSize(),
+                Sort.by(Sort.Direction.DESC, "start", "id"));
+        final List<BookingDto> foundBookings = List.of(BookingDto.builder().id(booking.getId()).build());
+        when(repository.findAllAsDto(any(BooleanExpression.class), eq(pageRequest), eq(false)))
+                .thenReturn(foundBookings);
+
+        List<BookingDto> returnedBookings = bookingService.getBookingsByBookerId(booking.getBooker().getId(), params);
+
+        assertEquals(foundBookings, returnedBookings);
+        // Смещение в режиме курсора игнорируется, позиция задается условием на (start, id).
+        verify(repository, times(1))
+                .findAllAsDto(argThat((BooleanExpression condition) -> condition.toString().contains("booking.id <")),
+                        eq(pageRequest), eq(false));
+    }
+
+    @Test
+    void getBookingsByOwnerId_whenCursorIsIncorrect_thenBadRequestExceptionThrownTest() {
+        final BookingRequestParam params = BookingRequestParam.builder()
+                .from(0)
+                .size(30)
+                .state("ALL")
+                .cursor("not a cursor")
+                .build();
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getBookingsByOwnerId(booking.getItem().getOwner().getId(), params));
+        verify(repository, never())
+                .findAllAsDto(any(BooleanExpression.class), any(Pageable.class), anyBoolean());
+    }
+
+    @Test
+    void getBookingsByBookerId_whenPagingParamsAreIncorrect_thenBadRequestExceptionThrownTest() {
+        final BookingRequestParam params = BookingRequestParam.builder()
+                .from(-1)
+                .size(0)
+                .state("ALL")
+                .build();
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getBookingsByBookerId(booking.getBooker().getId(), params));
+        verify(repository, never())
+                .findAllAsDto(any(BooleanExpression.class), any(Pageable.class), anyBoolean());
+    }
+
+    @Test
+    void saveAll_whenBatchHasCorrectAndIncorrectBookings_thenCorrectOnesSavedAndErrorsReturnedTest() {
+        // Этап 1. Подготовка: корректное бронирование, несуществующая вещь, дата в прошлом,
+        // пересечение с подтвержденным бронированием и бронирование без вещи.
+        final Long unknownItemId = 99L;
+        final BookingDto.Nested approvedBooking = BookingDto.Nested.builder()
+                .id(10L)
+                .start(now().plusMonths(2))
+                .end(now().plusMonths(3))
+                .status(BookingStatus.APPROVED)
+                .itemId(item.getId())
+                .bookerId(3L)
+                .build();
+        final List<CreateBookingDto> bookingDtos = List.of(
+                createBookingDto(item.getId(), now().plusDays(1), now().plusDays(2)),
+                createBookingDto(unknownItemId, now().plusDays(1), now().plusDays(2)),
+                createBookingDto(item.getId(), now().minusDays(2), now().minusDays(1)),
+                createBookingDto(item.getId(), now().plusMonths(2).plusDays(1), now().plusMonths(2).plusDays(2)),
+                createBookingDto(null, now().plusDays(1), now().plusDays(2)));
+
+        when(userService.getById(booker.getId())).thenReturn(booker);
+        when(itemService.getAllByIdForUpdate(Set.of(item.getId(), unknownItemId))).thenReturn(List.of(item));
+        when(repository.findByItemIdsAndStatusAndPeriod(eq(Set.of(item.getId())), eq(BookingStatus.APPROVED),
+                any(), any()))
+                .thenReturn(List.of(approvedBooking));
+
+        // Этап 2. Выполнение.
+        final List<BookingBatchResultDto> results = bookingService.saveAll(booker.getId(), bookingDtos);
+
+        // Этап 3. Проверка: результаты идут в порядке элементов пакета, сохранено только корректное бронирование.
+        assertEquals(List.of(0, 1, 2, 3, 4),
+                results.stream().map(BookingBatchResultDto::getIndex).collect(Collectors.toList()));
+        assertEquals(List.of(201, 404, 400, 400, 400),
+                results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals(item.getId(), results.get(0).getBooking().getItem().getId());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertNull(results.get(0).getError());
+        assertTrue(results.stream().skip(1).allMatch(result -> result.getBooking() == null
+                && result.getError() != null));
+
+        verify(repository, times(1))
+                .saveAll(bookingsCaptor.capture());
+        final List<Booking> savedBookings = new ArrayList<>(bookingsCaptor.getValue());
+        assertEquals(1, savedBookings.size());
+        assertEquals(booker, savedBookings.get(0).getBooker());
+        assertEquals(item, savedBookings.get(0).getItem());
+        // Вещи и подтвержденные бронирования получены одним запросом на весь пакет.
+        verify(itemService, never())
+                .getByIdForUpdate(anyLong());
+        verify(repository, never())
+                .existsByItemIdAndStatusAndStartBeforeAndEndAfter(anyLong(), any(), any(), any());
+        verify(summaryService, times(1))
+                .onBookingsCreated(bookingsCaptor.getValue());
+    }
+
+    @Test
+    void saveAll_whenBookerNotFound_thenNotFoundExceptionThrownTest() {
+        when(userService.getById(booker.getId()))
+                .thenThrow(new NotFoundException(User.class.getSimpleName(), booker.getId()));
+
+        assertThrows(NotFoundException.class, () -> bookingService.saveAll(booker.getId(),
+                List.of(createBookingDto(item.getId(), now().plusDays(1), now().plusDays(2)))));
+        verify(repository, never())
+                .saveAll(any());
+    }
+
+    @Test
+    void saveAll_whenBatchIsTooLarge_thenBadRequestExceptionThrownTest() {
+        final List<CreateBookingDto> bookingDtos = Collections.nCopies(5001,
+                createBookingDto(item.getId(), now().plusDays(1), now().plusDays(2)));
+
+        assertThrows(BadRequestException.class, () -> bookingService.saveAll(booker.getId(), bookingDtos));
+        verify(repository, never())
+                .saveAll(any());
+    }
+
+    private static CreateBookingDto createBookingDto(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return CreateBookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build();
+    }
+
+    private void mockOwnerBooking(Booking booking) {
+        when(repository.findAllAsDto(any(), any(), eq(true)))
+                .thenReturn(List.of(BookingMapper.toBookingDto(booking, null)));
     }
-}
\ No newline at end of file
+}
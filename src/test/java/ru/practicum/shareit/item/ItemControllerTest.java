@@ -10,24 +10,34 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.IntervalDto;
+import ru.practicum.shareit.booking.service.AvailabilityService;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportProgressDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.importer.ItemImportReader;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.time.LocalDateTime.now;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +48,12 @@ class ItemControllerTest {
     @MockBean
     ItemService itemService;
 
+    @MockBean
+    AvailabilityService availabilityService;
+
+    @MockBean
+    ItemImportService importService;
+
     @Autowired
     ObjectMapper mapper;
 
@@ -215,7 +231,12 @@ class ItemControllerTest {
 
     @Test
     void findItemsByText_whenItemContainText_thenResponseStatusOkWithItemDtoCollectionInBodyTest() throws Exception {
-        when(itemService.findByText(item.getName()))
+        final ItemSearchRequestParam params = ItemSearchRequestParam.builder()
+                .text(item.getName())
+                .from(0)
+                .size(30)
+                .build();
+        when(itemService.findByText(params))
                 .thenReturn(List.of(item));
 
         mockMvc.perform(get("/items/search")
@@ -233,7 +254,7 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)));
 
         verify(itemService, times(1))
-                .findByText(item.getName());
+                .findByText(params);
     }
 
     @Test
@@ -255,4 +276,73 @@ class ItemControllerTest {
         verify(itemService, times(1))
                 .saveComment(comment, userId, item.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability_whenInvoked_thenResponseStatusOkWithFreeIntervalsInBodyTest() throws Exception {
+        final LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        final LocalDateTime to = LocalDateTime.of(2030, 1, 31, 0, 0);
+        when(availabilityService.getFreeIntervals(userId, item.getId(), from, to))
+                .thenReturn(List.of(new IntervalDto(from, from.plusDays(1)), new IntervalDto(from.plusDays(3), to)));
+
+        mockMvc.perform(get("/items/{itemId}/availability", item.getId())
+                        .header(headerUserId, userId)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-31T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T00:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-02T00:00:00")))
+                .andExpect(jsonPath("$[1].start", is("2030-01-04T00:00:00")))
+                .andExpect(jsonPath("$[1].end", is("2030-01-31T00:00:00")));
+
+        verify(availabilityService, times(1))
+                .getFreeIntervals(userId, item.getId(), from, to);
+    }
+
+    @Test
+    void importItems_whenCsvUploaded_thenProgressWrittenAsNdjsonTest() throws Exception {
+        final String csv = "name,description,available\nДрель,Ударная дрель,true\nПила,,true\n";
+        doAnswer(invocation -> {
+            // Проверим, что контроллер передал сервису читатель CSV из тела запроса.
+            ItemImportReader reader = invocation.getArgument(1);
+            assertEquals("Дрель", reader.read().getItem().getName());
+            assertEquals(3, reader.read().getLine());
+
+            Consumer<ItemImportProgressDto> progressConsumer = invocation.getArgument(2);
+            progressConsumer.accept(ItemImportProgressDto.builder()
+                    .processed(2L)
+                    .saved(1L)
+                    .failed(1L)
+                    .errors(List.of(new ItemImportErrorDto(3L, "Описание вещи не должно быть пустым")))
+                    .build());
+            return null;
+        }).when(importService).importItems(eq(userId), any(), any());
+
+        final String body = mockMvc.perform(post("/items/import")
+                        .header(headerUserId, userId)
+                        .content(csv.getBytes(StandardCharsets.UTF_8))
+                        .contentType("text/csv;charset=UTF-8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        final ItemImportProgressDto progress = mapper.readValue(body.trim(), ItemImportProgressDto.class);
+        assertEquals(2L, progress.getProcessed());
+        assertEquals(1L, progress.getSaved());
+        assertEquals(3L, progress.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void importItems_whenContentTypeIsJson_thenResponseStatusBadRequestTest() throws Exception {
+        mockMvc.perform(post("/items/import")
+                        .header(headerUserId, userId)
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(importService, never())
+                .importItems(any(), any(), any());
+    }
+}
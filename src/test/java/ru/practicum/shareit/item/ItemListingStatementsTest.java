@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что число SQL-запросов при получении списка вещей владельца через GET /items
+ * не зависит от числа вещей, их комментариев, запросов и бронирований.
+ */
+@SpringBootTest(properties = {
+        "shareit.bookings.expiration.enabled=false",
+        "shareit.items.summary-refresh.enabled=false",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@AutoConfigureMockMvc
+class ItemListingStatementsTest {
+
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    Statistics statistics;
+    User owner;
+    int itemCount;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = saveUser("listing-owner");
+    }
+
+    @Test
+    void getAllOwnersItems_whenMoreItems_thenNumberOfStatementsNotChangedTest() throws Exception {
+        // Этап 1: две вещи с запросами, комментариями и бронированиями. Первый вызов загружает владельца
+        // в кэш и строит сводки бронирований, чтобы они не влияли на подсчет.
+        seedItems(2);
+        countStatements(2);
+        final long fewItemsStatements = countStatements(2);
+
+        // Этап 2: двести вещей.
+        seedItems(198);
+        countStatements(200);
+        final long manyItemsStatements = countStatements(200);
+
+        // Этап 3: число запросов не зависит от числа вещей.
+        assertEquals(fewItemsStatements, manyItemsStatements);
+        assertTrue(manyItemsStatements <= 5, "Expected at most 5 statements, but was " + manyItemsStatements);
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private long countStatements(int expectedItems) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/items")
+                        .header(HEADER_USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(expectedItems)))
+                .andExpect(jsonPath("$[0].lastBooking", notNullValue()))
+                .andExpect(jsonPath("$[0].nextBooking", notNullValue()))
+                .andExpect(jsonPath("$[0].comments", hasSize(2)));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedItems(int items) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < items; i++) {
+            itemCount++;
+            User author = saveUser("listing-author" + itemCount);
+            ItemRequest request = requestRepository.save(ItemRequest.builder()
+                    .description("request" + itemCount)
+                    .created(now)
+                    .requestor(author)
+                    .build());
+            Item item = itemRepository.save(Item.builder()
+                    .name("item" + itemCount)
+                    .description("description")
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+            for (int j = 0; j < 2; j++) {
+                commentRepository.save(Comment.builder()
+                        .text("comment" + j)
+                        .item(item)
+                        .author(author)
+                        .created(now)
+                        .build());
+                bookingRepository.save(Booking.builder()
+                        .item(item)
+                        .booker(author)
+                        .start(now.plusDays(j * 2L - 2))
+                        .end(now.plusDays(j * 2L - 1))
+                        .status(BookingStatus.APPROVED)
+                        .build());
+            }
+        }
+    }
+
+    private User saveUser(String name) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(name + "@email.com")
+                .build());
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemImportReaderTest {
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void read_whenCsvHasQuotedValues_thenValuesAndLinesParsedTest() throws IOException {
+        // Этап 1. Подготовка: колонки в произвольном порядке, значение с запятой, переводом строки и кавычками.
+        String csv = "available,name,description,requestId\r\n"
+                + "true,Дрель,\"Мощная, ударная\",\n"
+                + "\n"
+                + "false,\"Пила \"\"Дружба\"\"\",\"Первая строка\nвторая строка\",7\n"
+                + "TRUE,Лестница,Стремянка,";
+
+        // Этап 2. Выполнение.
+        List<ItemImportRow> rows = readAll("text/csv", csv);
+
+        // Этап 3. Проверка.
+        assertEquals(3, rows.size());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Дрель", rows.get(0).getItem().getName());
+        assertEquals("Мощная, ударная", rows.get(0).getItem().getDescription());
+        assertTrue(rows.get(0).getItem().getAvailable());
+        assertEquals(0, rows.get(0).getItem().getRequestId());
+
+        // Пустая строка пропущена, номер строки записи учитывает ее.
+        assertEquals(4, rows.get(1).getLine());
+        assertEquals("Пила \"Дружба\"", rows.get(1).getItem().getName());
+        assertEquals("Первая строка\nвторая строка", rows.get(1).getItem().getDescription());
+        assertFalse(rows.get(1).getItem().getAvailable());
+        assertEquals(7, rows.get(1).getItem().getRequestId());
+
+        // Запись в конце файла без перевода строки тоже прочитана.
+        assertEquals(6, rows.get(2).getLine());
+        assertTrue(rows.get(2).getItem().getAvailable());
+        assertNull(rows.get(2).getError());
+    }
+
+    @Test
+    void read_whenCsvRowIsIncorrect_thenRowErrorReturnedAndReadingContinuesTest() throws IOException {
+        String csv = "name,description,available,requestId\n"
+                + "Дрель,Дрель,yes,\n"
+                + "Дрель,Дрель,true,abc\n"
+                + "Дрель,Дрель\n"
+                + "Дрель,,true,\n"
+                + "Дрель,\"Незакрытая кавычка,true,\n";
+
+        List<ItemImportRow> rows = readAll("text/csv", csv);
+
+        assertEquals(5, rows.size());
+        assertEquals("Incorrect available value: yes", rows.get(0).getError());
+        assertEquals("Incorrect requestId value: abc", rows.get(1).getError());
+        assertEquals("Expected 4 values, but found 2", rows.get(2).getError());
+        // Пустое описание передается как null и отклоняется проверкой ограничений ItemDto.
+        assertNull(rows.get(3).getError());
+        assertNull(rows.get(3).getItem().getDescription());
+        assertEquals(6, rows.get(4).getLine());
+        assertEquals("Unterminated quoted value", rows.get(4).getError());
+    }
+
+    @Test
+    void read_whenCsvHeaderHasNoRequiredColumns_thenBadRequestExceptionThrownTest() {
+        ItemImportReader reader = ItemImportReader.of("text/csv", toStream("name,description\nДрель,Дрель\n"),
+                mapper);
+
+        assertThrows(BadRequestException.class, reader::read);
+    }
+
+    @Test
+    void read_whenNdjson_thenEachLineParsedAsItemDtoTest() throws IOException {
+        String ndjson = "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true,\"requestId\":3}\n"
+                + "\n"
+                + "{\"name\":\n"
+                + "{\"name\":\"Пила\",\"description\":\"Цепная\",\"available\":false}";
+
+        List<ItemImportRow> rows = readAll("application/x-ndjson;charset=UTF-8", ndjson);
+
+        assertEquals(3, rows.size());
+        assertEquals(1, rows.get(0).getLine());
+        assertEquals("Дрель", rows.get(0).getItem().getName());
+        assertEquals(3, rows.get(0).getItem().getRequestId());
+        assertEquals(3, rows.get(1).getLine());
+        assertTrue(rows.get(1).getError().startsWith("Incorrect JSON"));
+        assertEquals(4, rows.get(2).getLine());
+        assertFalse(rows.get(2).getItem().getAvailable());
+    }
+
+    @Test
+    void of_whenContentTypeIsNotSupported_thenBadRequestExceptionThrownTest() {
+        assertThrows(BadRequestException.class,
+                () -> ItemImportReader.of("application/json", toStream("[]"), mapper));
+    }
+
+    private List<ItemImportRow> readAll(String contentType, String content) throws IOException {
+        ItemImportReader reader = ItemImportReader.of(contentType, toStream(content), mapper);
+        List<ItemImportRow> rows = new ArrayList<>();
+        for (ItemImportRow row = reader.read(); row != null; row = reader.read()) {
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,19 +1,37 @@
 package ru.practicum.shareit.item.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchDocument;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ItemRepositoryTest {
 
     @Autowired
@@ -22,6 +40,18 @@ class ItemRepositoryTest {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
     User user1;
     Item item1;
 
@@ -40,15 +70,94 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void findByOwnerOrderByIdTest() {
-        final List<Item> byOwner = itemRepository.findByOwnerOrderById(user1);
+    void findDistinctByOwnerOrderByIdTest() {
+        final List<Item> byOwner = itemRepository.findDistinctByOwnerOrderById(user1);
         assertNotNull(byOwner);
         assertEquals(List.of(item1), byOwner);
     }
 
+    @Test
+    void findByIdGreaterThanOrderByIdTest() {
+        final List<ItemSearchDocument> documents = itemRepository
+                .findByIdGreaterThanOrderById(item1.getId() - 1, PageRequest.of(0, 10));
+
+        assertEquals(1, documents.size());
+        assertEquals(item1.getId(), documents.get(0).getId());
+        assertEquals(item1.getName(), documents.get(0).getName());
+        assertEquals(item1.getDescription(), documents.get(0).getDescription());
+        assertEquals(item1.getAvailable(), documents.get(0).getAvailable());
+        assertTrue(itemRepository.findByIdGreaterThanOrderById(item1.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void findDistinctByOwnerOrderById_whenOwnerHasManyItems_thenFixedNumberOfStatementsTest() {
+        // Этап 1. Подготовка: владелец с 200 вещами, у каждой вещи есть запрос, комментарии и бронирования.
+        final int itemsCount = 200;
+        final LocalDateTime now = LocalDateTime.now();
+        User owner = userRepository.save(User.builder().email("owner@email").name("owner").build());
+        for (int i = 0; i < itemsCount; i++) {
+            User author = userRepository.save(User.builder()
+                    .email("author" + i + "@email")
+                    .name("author" + i)
+                    .build());
+            ItemRequest request = requestRepository.save(ItemRequest.builder()
+                    .description("request" + i)
+                    .created(now)
+                    .requestor(author)
+                    .build());
+            Item item = itemRepository.save(Item.builder()
+                    .available(true)
+                    .owner(owner)
+                    .name("item" + i)
+                    .description("description" + i)
+                    .request(request)
+                    .build());
+            for (int j = 0; j < 2; j++) {
+                commentRepository.save(Comment.builder()
+                        .text("comment" + j)
+                        .item(item)
+                        .author(author)
+                        .created(now)
+                        .build());
+                bookingRepository.save(Booking.builder()
+                        .item(item)
+                        .booker(author)
+                        .start(now.plusDays(j * 2L - 2))
+                        .end(now.plusDays(j * 2L - 1))
+                        .status(BookingStatus.APPROVED)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // Этап 2. Выполнение: получение вещей владельца и преобразование их в DTO.
+        final List<Item> items = itemRepository.findDistinctByOwnerOrderById(owner);
+        final List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        final Map<Long, List<BookingDto.Nested>> bookings = bookingRepository
+                .findLastAndNextBookings(itemIds, now).stream()
+                .collect(Collectors.groupingBy(BookingDto.Nested::getItemId));
+        final List<ItemDto> itemDtos = items.stream()
+                .map(item -> ItemMapper.toItemDto(item, (ItemBookings) null))
+                .collect(Collectors.toList());
+
+        // Этап 3. Проверка.
+        assertEquals(itemsCount, itemDtos.size());
+        assertEquals(itemsCount, bookings.size());
+        assertTrue(itemDtos.stream().allMatch(itemDto -> itemDto.getComments().size() == 2));
+        assertTrue(itemDtos.stream().allMatch(itemDto -> itemDto.getRequestId() > 0));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
     @AfterEach
     void afterEach() {
         itemRepository.deleteAll();
         userRepository.deleteAll();
     }
-}
\ No newline at end of file
+}
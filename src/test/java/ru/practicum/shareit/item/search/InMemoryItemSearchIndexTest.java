@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryItemSearchIndexTest {
+
+    final Pageable firstPage = new MyPageRequest(0, 30, Sort.unsorted());
+
+    InMemoryItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        searchIndex = new InMemoryItemSearchIndex();
+        searchIndex.index(1L, "Дрель", "Простая дрель", true);
+        searchIndex.index(2L, "Отвертка", "Аккумуляторная отвертка", true);
+        searchIndex.index(3L, "Клей Момент", "Тюбик суперклея марки Момент", true);
+        searchIndex.index(4L, "Дрель ударная", "Мощная дрель", false);
+    }
+
+    @Test
+    void search_whenTextIsSubstringOfNameOrDescription_thenReturnAvailableItemsTest() {
+        assertEquals(List.of(1L), searchIndex.search("дРелЬ", firstPage));
+        assertEquals(List.of(2L), searchIndex.search("кумулятор", firstPage));
+        assertEquals(List.of(3L), searchIndex.search("клей", firstPage));
+    }
+
+    @Test
+    void search_whenTextIsShorterThanNgram_thenScanAllItemsTest() {
+        assertEquals(List.of(2L, 3L, 1L), searchIndex.search("т", firstPage));
+    }
+
+    @Test
+    void search_whenAllNgramsPresentButNoSubstring_thenReturnEmptyListTest() {
+        // Все триграммы "дрельдрель" есть в индексе, но самой подстроки нет.
+        assertTrue(searchIndex.search("дрельдрель", firstPage).isEmpty());
+        assertTrue(searchIndex.search("пила", firstPage).isEmpty());
+        assertTrue(searchIndex.search(" ", firstPage).isEmpty());
+    }
+
+    @Test
+    void search_whenSeveralItemsMatch_thenNameMatchesGoFirstThenByFrequencyTest() {
+        searchIndex.index(5L, "Набор сверл", "Сверла для дрели, подходят к любой дрели", true);
+        searchIndex.index(6L, "Перфоратор", "Можно сверлить как дрелью", true);
+        searchIndex.index(7L, "Дрель-шуруповерт", "Компактная", true);
+
+        assertEquals(List.of(1L, 7L, 5L, 6L), searchIndex.search("дрел", firstPage));
+    }
+
+    @Test
+    void search_whenPageRequested_thenReturnOnlyThisPageTest() {
+        searchIndex.index(5L, "Набор сверл", "Сверла для дрели, подходят к любой дрели", true);
+        searchIndex.index(6L, "Перфоратор", "Можно сверлить как дрелью", true);
+        searchIndex.index(7L, "Дрель-шуруповерт", "Компактная", true);
+
+        assertEquals(List.of(7L, 5L), searchIndex.search("дрел", new MyPageRequest(1, 2, Sort.unsorted())));
+        assertEquals(List.of(6L), searchIndex.search("дрел", new MyPageRequest(3, 2, Sort.unsorted())));
+        assertTrue(searchIndex.search("дрел", new MyPageRequest(4, 2, Sort.unsorted())).isEmpty());
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTextIsNotFoundTest() {
+        searchIndex.index(Item.builder()
+                .id(1L)
+                .name("Пила")
+                .description("Ножовка по дереву")
+                .available(true)
+                .build());
+
+        assertTrue(searchIndex.search("дрель", firstPage).isEmpty());
+        assertEquals(List.of(1L), searchIndex.search("ножовка", firstPage));
+    }
+
+    @Test
+    void remove_whenItemRemoved_thenItIsNotFoundTest() {
+        searchIndex.remove(3L);
+        searchIndex.remove(42L);
+
+        assertTrue(searchIndex.search("момент", firstPage).isEmpty());
+    }
+
+    @Test
+    void clear_whenInvoked_thenNothingIsFoundTest() {
+        searchIndex.clear();
+
+        assertTrue(searchIndex.search("ре", firstPage).isEmpty());
+    }
+}
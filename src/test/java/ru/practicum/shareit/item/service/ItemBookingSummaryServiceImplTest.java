@@ -0,0 +1,409 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.time.LocalDateTime.now;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ItemBookingSummaryServiceImplTest {
+
+    ItemBookingSummaryRepository summaryRepository;
+    BookingRepository bookingRepository;
+    ItemRepository itemRepository;
+    ItemBookingSummaryService summaryService;
+
+    Item item;
+    BookingDto.Nested lastBooking;
+    BookingDto.Nested nextBooking;
+
+    @BeforeEach
+    void beforeEach() {
+        summaryRepository = mock(ItemBookingSummaryRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        itemRepository = mock(ItemRepository.class);
+        summaryService = new ItemBookingSummaryServiceImpl(summaryRepository, bookingRepository, itemRepository);
+
+        item = Item.builder()
+                .id(1L)
+                .name("Item")
+                .description("Description")
+                .available(true)
+                .build();
+        lastBooking = BookingDto.Nested.builder()
+                .id(1L)
+                .start(now().minusDays(2))
+                .end(now().minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .itemId(item.getId())
+                .bookerId(2L)
+                .build();
+        nextBooking = BookingDto.Nested.builder()
+                .id(2L)
+                .start(now().plusDays(1))
+                .end(now().plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .itemId(item.getId())
+                .bookerId(2L)
+                .build();
+    }
+
+    @Test
+    void getItemBookings_whenSummaryIsActual_thenBookingsLoadedByIdsWithoutRebuildTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(2)
+                .rentalSeconds(2 * 24 * 60 * 60)
+                .lastBookingId(lastBooking.getId())
+                .nextBookingId(nextBooking.getId())
+                .validUntil(nextBooking.getEnd())
+                .build();
+        when(summaryRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(summary));
+        when(bookingRepository.findNestedByIdIn(Set.of(lastBooking.getId(), nextBooking.getId())))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        // Этап 2. Выполнение.
+        Map<Long, ItemBookings> itemBookings = summaryService.getItemBookings(List.of(item.getId()));
+
+        // Этап 3. Проверка.
+        ItemBookings returnedBookings = itemBookings.get(item.getId());
+        assertEquals(lastBooking, returnedBookings.getLastBooking());
+        assertEquals(nextBooking, returnedBookings.getNextBooking());
+        assertEquals(2L, returnedBookings.getBookingsCount());
+        assertEquals(24 * 60L, returnedBookings.getAverageRentalMinutes());
+
+        // Сводка актуальна, поэтому бронирования вещи не пересчитываются.
+        verify(bookingRepository, never())
+                .findLastAndNextBookings(any(), any());
+        verify(summaryRepository, never())
+                .saveAll(any());
+    }
+
+    @Test
+    void getItemBookings_whenSummaryIsMissing_thenSummaryComputedWithoutLockingAndSavingTest() {
+        // Этап 1. Подготовка.
+        when(summaryRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of());
+        when(bookingRepository.findByItemIdsAndStatus(List.of(item.getId()), BookingStatus.APPROVED))
+                .thenReturn(List.of(lastBooking, nextBooking));
+        when(bookingRepository.findLastAndNextBookings(eq(Set.of(item.getId())), any()))
+                .thenReturn(List.of(lastBooking, nextBooking));
+        when(bookingRepository.findNestedByIdIn(Set.of(lastBooking.getId(), nextBooking.getId())))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        // Этап 2. Выполнение.
+        Map<Long, ItemBookings> itemBookings = summaryService.getItemBookings(List.of(item.getId()));
+
+        // Этап 3. Проверка.
+        ItemBookings returnedBookings = itemBookings.get(item.getId());
+        assertEquals(lastBooking, returnedBookings.getLastBooking());
+        assertEquals(nextBooking, returnedBookings.getNextBooking());
+        assertEquals(2L, returnedBookings.getBookingsCount());
+        assertEquals(24 * 60L, returnedBookings.getAverageRentalMinutes());
+
+        // Чтение не блокирует вещи и ничего не сохраняет.
+        verify(itemRepository, never())
+                .findAllByIdForUpdate(any());
+        verify(summaryRepository, never())
+                .saveAll(any());
+    }
+
+    @Test
+    void getItemBookings_whenNextBookingFinished_thenPointersComputedAndStoredSummaryNotChangedTest() {
+        // Этап 1. Подготовка.
+        LocalDateTime finishedEnd = now().minusHours(1);
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(5)
+                .rentalSeconds(5 * 60 * 60)
+                .lastBookingId(10L)
+                .nextBookingId(lastBooking.getId())
+                .validUntil(finishedEnd)
+                .build();
+        when(summaryRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(summary));
+        when(bookingRepository.findLastAndNextBookings(eq(Set.of(item.getId())), any()))
+                .thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNestedByIdIn(Set.of(lastBooking.getId())))
+                .thenReturn(List.of(lastBooking));
+
+        // Этап 2. Выполнение.
+        Map<Long, ItemBookings> itemBookings = summaryService.getItemBookings(List.of(item.getId()));
+
+        // Этап 3. Проверка.
+        ItemBookings returnedBookings = itemBookings.get(item.getId());
+        assertEquals(lastBooking, returnedBookings.getLastBooking());
+        assertNull(returnedBookings.getNextBooking());
+        assertEquals(5L, returnedBookings.getBookingsCount());
+        assertEquals(60L, returnedBookings.getAverageRentalMinutes());
+
+        // Сохраненная сводка не меняется в транзакции чтения, ее пересчитает фоновая задача.
+        assertEquals(finishedEnd, summary.getValidUntil());
+        assertEquals(10L, summary.getLastBookingId());
+        verify(itemRepository, never())
+                .findAllByIdForUpdate(any());
+        verify(summaryRepository, never())
+                .saveAll(any());
+        // Количество бронирований уже известно, поэтому подтвержденные бронирования не перечитываются.
+        verify(bookingRepository, never())
+                .findByItemIdsAndStatus(any(), any());
+    }
+
+    @Test
+    void onBookingsCreated_whenSummaryIsStale_thenSummaryRebuiltAndSavedTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(1)
+                .nextBookingId(lastBooking.getId())
+                .validUntil(lastBooking.getEnd())
+                .build();
+        Booking booking = Booking.builder()
+                .id(nextBooking.getId())
+                .start(nextBooking.getStart())
+                .end(nextBooking.getEnd())
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build();
+        when(summaryRepository.findAllById(Set.of(item.getId())))
+                .thenReturn(List.of(summary));
+        when(summaryRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(summary));
+        when(bookingRepository.findLastAndNextBookings(eq(Set.of(item.getId())), any()))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingsCreated(List.of(booking));
+
+        // Этап 3. Проверка.
+        assertEquals(lastBooking.getId(), summary.getLastBookingId());
+        assertEquals(nextBooking.getId(), summary.getNextBookingId());
+        assertEquals(nextBooking.getEnd(), summary.getValidUntil());
+        assertEquals(1L, summary.getBookingsCount());
+        verify(summaryRepository, times(1))
+                .saveAll(argThat(summaries -> summaries.iterator().next() == summary));
+    }
+
+    @Test
+    void onBookingsCreated_whenBookingEndsBeforeNextOne_thenBookingBecomesNextTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(nextBooking.getId())
+                .validUntil(nextBooking.getEnd())
+                .build();
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(now().plusHours(1))
+                .end(now().plusHours(2))
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build();
+        when(summaryRepository.findAllById(Set.of(item.getId())))
+                .thenReturn(List.of(summary));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingsCreated(List.of(booking));
+
+        // Этап 3. Проверка.
+        assertEquals(booking.getId(), summary.getNextBookingId());
+        assertEquals(booking.getEnd(), summary.getValidUntil());
+    }
+
+    @Test
+    void onBookingsCreated_whenBookingEndsAfterNextOne_thenSummaryNotChangedTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(nextBooking.getId())
+                .validUntil(nextBooking.getEnd())
+                .build();
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(nextBooking.getEnd().plusDays(1))
+                .end(nextBooking.getEnd().plusDays(2))
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build();
+        when(summaryRepository.findAllById(Set.of(item.getId())))
+                .thenReturn(List.of(summary));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingsCreated(List.of(booking));
+
+        // Этап 3. Проверка.
+        assertEquals(nextBooking.getId(), summary.getNextBookingId());
+        assertEquals(nextBooking.getEnd(), summary.getValidUntil());
+    }
+
+    @Test
+    void onBookingApproved_whenSummaryExists_thenCountAndRentalIncreasedTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(1)
+                .rentalSeconds(60)
+                .build();
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(now().plusDays(1))
+                .end(now().plusDays(1).plusHours(1))
+                .item(item)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(summaryRepository.findById(item.getId()))
+                .thenReturn(Optional.of(summary));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingApproved(item.getId(), booking.getStart(), booking.getEnd());
+
+        // Этап 3. Проверка.
+        assertEquals(2L, summary.getBookingsCount());
+        assertEquals(60L + 60 * 60, summary.getRentalSeconds());
+    }
+
+    @Test
+    void onBookingApproved_whenSummaryIsMissing_thenSummaryBuiltWithApprovedBookingsTest() {
+        // Этап 1. Подготовка.
+        Booking booking = Booking.builder()
+                .id(nextBooking.getId())
+                .start(nextBooking.getStart())
+                .end(nextBooking.getEnd())
+                .item(item)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(summaryRepository.findById(item.getId()))
+                .thenReturn(Optional.empty());
+        when(summaryRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of());
+        when(bookingRepository.findByItemIdsAndStatus(List.of(item.getId()), BookingStatus.APPROVED))
+                .thenReturn(List.of(nextBooking));
+        when(bookingRepository.findLastAndNextBookings(eq(Set.of(item.getId())), any()))
+                .thenReturn(List.of(nextBooking));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingApproved(item.getId(), booking.getStart(), booking.getEnd());
+
+        // Этап 3. Проверка.
+        verify(summaryRepository, times(1))
+                .saveAll(argThat(summaries -> {
+                    ItemBookingSummary summary = summaries.iterator().next();
+                    return summary.getItemId().equals(item.getId())
+                            && summary.getBookingsCount() == 1
+                            && summary.getNextBookingId().equals(nextBooking.getId());
+                }));
+    }
+
+    @Test
+    void onBookingsDeleted_whenApprovedNextBookingDeleted_thenCountDecreasedAndSummaryMarkedStaleTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(2)
+                .rentalSeconds(2 * 24 * 60 * 60)
+                .lastBookingId(lastBooking.getId())
+                .nextBookingId(nextBooking.getId())
+                .validUntil(nextBooking.getEnd())
+                .build();
+        Booking booking = Booking.builder()
+                .id(nextBooking.getId())
+                .start(nextBooking.getStart())
+                .end(nextBooking.getEnd())
+                .item(item)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(summaryRepository.findAllById(Set.of(item.getId())))
+                .thenReturn(List.of(summary));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingsDeleted(List.of(booking));
+
+        // Этап 3. Проверка.
+        assertEquals(1L, summary.getBookingsCount());
+        assertEquals(24 * 60 * 60L, summary.getRentalSeconds());
+        assertFalse(summary.isActual(now()));
+        verify(itemRepository, times(1))
+                .findAllByIdForUpdate(Set.of(item.getId()));
+    }
+
+    @Test
+    void onBookingsDeleted_whenWaitingBookingNotReferenced_thenSummaryNotChangedTest() {
+        // Этап 1. Подготовка.
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(2)
+                .nextBookingId(nextBooking.getId())
+                .validUntil(nextBooking.getEnd())
+                .build();
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(nextBooking.getEnd().plusDays(1))
+                .end(nextBooking.getEnd().plusDays(2))
+                .item(item)
+                .status(BookingStatus.WAITING)
+                .build();
+        when(summaryRepository.findAllById(Set.of(item.getId())))
+                .thenReturn(List.of(summary));
+
+        // Этап 2. Выполнение.
+        summaryService.onBookingsDeleted(List.of(booking));
+
+        // Этап 3. Проверка.
+        assertEquals(2L, summary.getBookingsCount());
+        assertEquals(nextBooking.getEnd(), summary.getValidUntil());
+    }
+
+    @Test
+    void refreshStale_whenStaleSummariesFound_thenItemsLockedAndSummariesSavedTest() {
+        // Этап 1. Подготовка.
+        LocalDateTime refreshTime = now();
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .bookingsCount(1)
+                .nextBookingId(lastBooking.getId())
+                .validUntil(lastBooking.getEnd())
+                .build();
+        when(summaryRepository.findItemIdsByValidUntilBefore(eq(refreshTime), any(Pageable.class)))
+                .thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllByIdForUpdate(List.of(item.getId())))
+                .thenReturn(List.of(item));
+        when(summaryRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(summary));
+        when(bookingRepository.findLastAndNextBookings(Set.of(item.getId()), refreshTime))
+                .thenReturn(List.of(lastBooking));
+
+        // Этап 2. Выполнение.
+        int refreshed = summaryService.refreshStale(refreshTime, 10);
+
+        // Этап 3. Проверка.
+        assertEquals(1, refreshed);
+        assertEquals(lastBooking.getId(), summary.getLastBookingId());
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getValidUntil());
+        verify(summaryRepository, times(1))
+                .saveAll(argThat(summaries -> summaries.iterator().next() == summary));
+    }
+}
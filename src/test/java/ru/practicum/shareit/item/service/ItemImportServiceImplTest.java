@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportProgressDto;
+import ru.practicum.shareit.item.importer.ItemImportReader;
+import ru.practicum.shareit.item.importer.ItemImportRow;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.request.service.RequestSuggestionService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.validation.Validation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ItemImportServiceImplTest {
+
+    ItemRepository itemRepository;
+    UserService userService;
+    RequestService requestService;
+    ItemSearchIndex searchIndex;
+    RequestSuggestionService suggestionService;
+    PlatformTransactionManager transactionManager;
+    ItemImportService importService;
+
+    User owner;
+    ItemRequest request;
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository = mock(ItemRepository.class);
+        userService = mock(UserService.class);
+        requestService = mock(RequestService.class);
+        searchIndex = mock(ItemSearchIndex.class);
+        suggestionService = mock(RequestSuggestionService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        importService = new ItemImportServiceImpl(itemRepository, userService, requestService, searchIndex,
+                suggestionService, Validation.buildDefaultValidatorFactory().getValidator(), transactionManager);
+
+        owner = User.builder()
+                .id(1L)
+                .name("owner")
+                .email("owner@email.com")
+                .build();
+        request = ItemRequest.builder()
+                .id(5L)
+                .description("Нужна дрель")
+                .build();
+        when(userService.getById(owner.getId()))
+                .thenReturn(owner);
+        when(requestService.getAllById(any()))
+                .thenReturn(List.of(request));
+        when(itemRepository.saveAll(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void importItems_whenManyRows_thenSavedInBatchesWithProgressTest() throws IOException {
+        // Этап 1. Подготовка: 2500 строк, часть из них ссылается на запрос, одна строка не разобрана.
+        List<ItemImportRow> rows = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            rows.add(ItemImportRow.of(i, ItemDto.builder()
+                    .name("Дрель " + i)
+                    .description("Ударная дрель")
+                    .available(true)
+                    .requestId(i % 2 == 0 ? request.getId() : 0)
+                    .build()));
+        }
+        rows.set(1500, ItemImportRow.error(1501, "Incorrect JSON"));
+
+        // Этап 2. Выполнение.
+        List<ItemImportProgressDto> progress = new ArrayList<>();
+        importService.importItems(owner.getId(), toReader(rows), progress::add);
+
+        // Этап 3. Проверка: три порции, каждая в своей транзакции, счетчики накапливаются.
+        assertEquals(List.of(1000L, 2000L, 2500L),
+                progress.stream().map(ItemImportProgressDto::getProcessed).collect(Collectors.toList()));
+        assertEquals(List.of(1000L, 1999L, 2499L),
+                progress.stream().map(ItemImportProgressDto::getSaved).collect(Collectors.toList()));
+        assertEquals(1L, progress.get(2).getFailed());
+        assertTrue(progress.get(0).getErrors().isEmpty());
+        assertEquals(1501L, progress.get(1).getErrors().get(0).getLine());
+
+        verify(itemRepository, times(3))
+                .saveAll(any());
+        verify(transactionManager, times(3))
+                .commit(any());
+        // Запросы подбираются для каждой сохраненной порции.
+        verify(suggestionService, times(3))
+                .onItemsSaved(any());
+        // Владелец и запрос загружены один раз на весь импорт.
+        verify(userService, times(1))
+                .getById(owner.getId());
+        verify(requestService, times(1))
+                .getAllById(Set.of(request.getId()));
+        verify(searchIndex, times(2499))
+                .index(any(Item.class));
+    }
+
+    @Test
+    void importItems_whenRowsAreInvalid_thenErrorsReportedPerRowTest() throws IOException {
+        // Этап 1. Подготовка.
+        when(requestService.getAllById(any()))
+                .thenReturn(List.of());
+        List<ItemImportRow> rows = List.of(
+                ItemImportRow.of(2, ItemDto.builder().name("Дрель").description("Дрель").available(true).build()),
+                ItemImportRow.of(3, ItemDto.builder().name(" ").description("Дрель").build()),
+                ItemImportRow.of(4, ItemDto.builder().name("Дрель").description("Дрель").available(true)
+                        .requestId(99).build()));
+
+        // Этап 2. Выполнение.
+        List<ItemImportProgressDto> progress = new ArrayList<>();
+        importService.importItems(owner.getId(), toReader(rows), progress::add);
+
+        // Этап 3. Проверка.
+        assertEquals(1, progress.size());
+        assertEquals(1L, progress.get(0).getSaved());
+        assertEquals(2L, progress.get(0).getFailed());
+        List<ItemImportErrorDto> errors = progress.get(0).getErrors();
+        assertEquals(3L, errors.get(0).getLine());
+        assertEquals("Наименование вещи должно быть указано; Необходимо указать статус доступности вещи",
+                errors.get(0).getError());
+        assertEquals(4L, errors.get(1).getLine());
+        assertEquals(new NotFoundException(ItemRequest.class.getSimpleName(), 99L).getMessage(),
+                errors.get(1).getError());
+
+        verify(itemRepository, times(1))
+                .saveAll(argThat(items -> ((List<Item>) items).size() == 1
+                        && ((List<Item>) items).get(0).getOwner().equals(owner)));
+    }
+
+    @Test
+    void importItems_whenBatchFailsToSave_thenAllRowsOfBatchReportedTest() throws IOException {
+        when(itemRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("constraint violation"));
+        List<ItemImportRow> rows = List.of(
+                ItemImportRow.of(1, ItemDto.builder().name("Дрель").description("Дрель").available(true).build()),
+                ItemImportRow.of(2, ItemDto.builder().name("Пила").description("Пила").available(true).build()));
+
+        List<ItemImportProgressDto> progress = new ArrayList<>();
+        importService.importItems(owner.getId(), toReader(rows), progress::add);
+
+        assertEquals(0L, progress.get(0).getSaved());
+        assertEquals(List.of(1L, 2L), progress.get(0).getErrors().stream()
+                .map(ItemImportErrorDto::getLine)
+                .collect(Collectors.toList()));
+        verify(searchIndex, never())
+                .index(any(Item.class));
+    }
+
+    @Test
+    void importItems_whenOwnerNotFound_thenNotFoundExceptionThrownBeforeReadingTest() throws IOException {
+        when(userService.getById(owner.getId()))
+                .thenThrow(new NotFoundException(User.class.getSimpleName(), owner.getId()));
+        ItemImportReader reader = mock(ItemImportReader.class);
+
+        assertThrows(NotFoundException.class, () -> importService.importItems(owner.getId(), reader, progress -> { }));
+        verify(reader, never())
+                .read();
+    }
+
+    @Test
+    void importItems_whenFileIsEmpty_thenZeroProgressReportedTest() throws IOException {
+        List<ItemImportProgressDto> progress = new ArrayList<>();
+        importService.importItems(owner.getId(), toReader(List.of()), progress::add);
+
+        assertEquals(1, progress.size());
+        assertEquals(0L, progress.get(0).getProcessed());
+        verify(itemRepository, never())
+                .saveAll(any());
+    }
+
+    private static ItemImportReader toReader(List<ItemImportRow> rows) {
+        Iterator<ItemImportRow> iterator = rows.iterator();
+
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+}
@@ -1,6 +1,5 @@
 package ru.practicum.shareit.item.service;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -8,20 +7,29 @@ import org.mockito.Captor;
 import org.mockito.InOrder;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import ru.practicum.shareit.booking.model.Booking;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.MyPageRequest;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemBookings;
+import ru.practicum.shareit.item.ItemSearchRequestParam;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.request.service.RequestSuggestionService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static java.time.LocalDateTime.of;
@@ -35,8 +43,12 @@ class ItemServiceImplTest {
     ItemService itemService;
     ItemRepository itemRepository;
     CommentRepository commentRepository;
+    BookingRepository bookingRepository;
+    ItemBookingSummaryService summaryService;
     UserService userService;
     RequestService requestService;
+    ItemSearchIndex searchIndex;
+    RequestSuggestionService suggestionService;
 
     @Captor
     ArgumentCaptor<Item> itemCaptor;
@@ -65,9 +77,14 @@ class ItemServiceImplTest {
     void beforeEach() {
         itemRepository = mock(ItemRepository.class);
         commentRepository = mock(CommentRepository.class);
+        bookingRepository = mock(BookingRepository.class);
+        summaryService = mock(ItemBookingSummaryService.class);
         userService = mock(UserService.class);
         requestService = mock(RequestService.class);
-        itemService = new ItemServiceImpl(itemRepository, commentRepository, userService, requestService);
+        searchIndex = mock(ItemSearchIndex.class);
+        suggestionService = mock(RequestSuggestionService.class);
+        itemService = new ItemServiceImpl(itemRepository, commentRepository, bookingRepository, summaryService,
+                userService, requestService, searchIndex, suggestionService);
     }
 
     @Test
@@ -94,6 +111,8 @@ class ItemServiceImplTest {
         // Этап 3. Проверка.
         verify(itemRepository).save(itemCaptor.capture());
         Item savedItem = itemCaptor.getValue();
+        verify(suggestionService, times(1))
+                .onItemsSaved(List.of(returnedItem));
 
         // Проверим, что сохраненное значение равно ожидаемому.
         assertEquals(expectedItem.getId(), savedItem.getId());
@@ -118,6 +137,7 @@ class ItemServiceImplTest {
                 .getById(anotherOwner.getId());
         verify(itemRepository, times(1))
                 .save(savedItem);
+        verify(searchIndex, times(1)).index(expectedItem);
     }
 
     @Test
@@ -169,6 +189,8 @@ class ItemServiceImplTest {
         // Этап 3. Проверка.
         verify(itemRepository).save(itemCaptor.capture());
         Item savedItem = itemCaptor.getValue();
+        verify(suggestionService, times(1))
+                .onItemUpdated(returnedItem);
 
         // Проверим, что возвращаемое значение равно ожидаемому.
         assertEquals(expectedItem.getId(), returnedItem.getId());
@@ -191,12 +213,13 @@ class ItemServiceImplTest {
         verify(itemRepository, times(1)).findById(item.getId());
         verify(requestService, times(1)).getById(anotherRequest.getId());
         verify(itemRepository, times(1)).save(savedItem);
+        verify(searchIndex, times(1)).index(expectedItem);
     }
 
     @Test
     void getAll_whenOwnerExist_thenReturnOwnersItemsCollectionTest() {
         when(userService.getById(item.getOwner().getId())).thenReturn(item.getOwner());
-        when(itemRepository.findByOwnerOrderById(item.getOwner())).thenReturn(List.of(item));
+        when(itemRepository.findDistinctByOwnerOrderById(item.getOwner())).thenReturn(List.of(item));
 
         final List<Item> items = itemService.getAll(item.getOwner().getId());
 
@@ -207,31 +230,87 @@ class ItemServiceImplTest {
         InOrder inOrder = inOrder(userService, itemRepository);
         inOrder.verify(userService, times(1)).getById(item.getOwner().getId());
         inOrder.verify(itemRepository, times(1))
-                .findByOwnerOrderById(item.getOwner());
+                .findDistinctByOwnerOrderById(item.getOwner());
     }
 
     @Test
-    void findByText_whenTextIsPresent_thenReturnItemCollectionTest() {
-        Iterable<Item> foundItems = List.of(item);
-        when(itemRepository.findAll(any(BooleanExpression.class))).thenReturn(foundItems);
+    void findByText_whenTextIsPresent_thenReturnItemCollectionInIndexOrderTest() {
+        final Item anotherItem = Item.builder().id(2L).owner(owner).build();
+        final ItemSearchRequestParam params = ItemSearchRequestParam.builder()
+                .text(item.getName())
+                .from(0)
+                .size(10)
+                .build();
+        final MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), Sort.unsorted());
+        when(searchIndex.search(item.getName(), pageRequest)).thenReturn(List.of(anotherItem.getId(), item.getId()));
+        when(itemRepository.findDistinctByIdIn(List.of(anotherItem.getId(), item.getId())))
+                .thenReturn(List.of(item, anotherItem));
 
-        List<Item> returnedItems = itemService.findByText(item.getName());
+        List<Item> returnedItems = itemService.findByText(params);
 
         assertNotNull(returnedItems);
-        assertEquals(1, returnedItems.size());
-        assertEquals(item, returnedItems.get(0));
+        assertEquals(List.of(anotherItem, item), returnedItems);
+
+        InOrder inOrder = inOrder(searchIndex, itemRepository);
+        inOrder.verify(searchIndex, times(1)).search(item.getName(), pageRequest);
+        inOrder.verify(itemRepository, times(1)).findDistinctByIdIn(List.of(anotherItem.getId(), item.getId()));
+    }
 
-        verify(itemRepository, times(1)).findAll(any(BooleanExpression.class));
+    @Test
+    void findByText_whenIndexedItemDeleted_thenItemRemovedFromIndexAndSearchRepeatedTest() {
+        final Item anotherItem = Item.builder().id(2L).owner(owner).build();
+        final Long deletedItemId = 3L;
+        final ItemSearchRequestParam params = ItemSearchRequestParam.builder()
+                .text(item.getName())
+                .from(0)
+                .size(2)
+                .build();
+        final MyPageRequest pageRequest = new MyPageRequest(params.getFrom(), params.getSize(), Sort.unsorted());
+        when(searchIndex.search(item.getName(), pageRequest))
+                .thenReturn(List.of(deletedItemId, item.getId()))
+                .thenReturn(List.of(item.getId(), anotherItem.getId()));
+        when(itemRepository.findDistinctByIdIn(List.of(deletedItemId, item.getId())))
+                .thenReturn(List.of(item));
+        when(itemRepository.findDistinctByIdIn(List.of(item.getId(), anotherItem.getId())))
+                .thenReturn(List.of(item, anotherItem));
+
+        List<Item> returnedItems = itemService.findByText(params);
+
+        // Удаленная вещь не заняла место на странице.
+        assertEquals(List.of(item, anotherItem), returnedItems);
+        verify(searchIndex, times(1)).remove(deletedItemId);
+        verify(searchIndex, times(2)).search(item.getName(), pageRequest);
     }
 
     @Test
     void findByText_whenTextIsEmpty_thenReturnEmptyCollectionTest() {
-        List<Item> returnedItems = itemService.findByText("");
+        List<Item> returnedItems = itemService.findByText(ItemSearchRequestParam.builder()
+                .text("")
+                .from(0)
+                .size(10)
+                .build());
 
         assertNotNull(returnedItems);
         assertTrue(returnedItems.isEmpty());
 
-        verify(itemRepository, never()).findAll(any(BooleanExpression.class));
+        verify(searchIndex, never()).search(anyString(), any());
+        verify(itemRepository, never()).findDistinctByIdIn(any());
+    }
+
+    @Test
+    void findByText_whenPagingParamsIncorrect_thenBadRequestExceptionThrownTest() {
+        assertThrows(BadRequestException.class, () -> itemService.findByText(ItemSearchRequestParam.builder()
+                .text("text")
+                .from(-1)
+                .size(10)
+                .build()));
+        assertThrows(BadRequestException.class, () -> itemService.findByText(ItemSearchRequestParam.builder()
+                .text("text")
+                .from(0)
+                .size(0)
+                .build()));
+
+        verify(searchIndex, never()).search(anyString(), any());
     }
 
     @Test
@@ -249,13 +328,9 @@ class ItemServiceImplTest {
                 .author(owner)
                 .item(item)
                 .build();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .start(time)
-                .booker(owner)
-                .build();
-        item.getBookings().add(booking);
-
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndStartBefore(eq(owner.getId()),
+                eq(item.getId()), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(true);
         when(itemRepository.findById(expectedComment.getItem().getId()))
                 .thenReturn(Optional.of(expectedComment.getItem()));
         when(userService.getById(expectedComment.getAuthor().getId()))
@@ -284,9 +359,12 @@ class ItemServiceImplTest {
         assertEquals(expectedComment.getItem(), savedComment.getItem());
 
         // Проверим вызовы.
-        InOrder inOrder = inOrder(itemRepository, userService, commentRepository);
+        InOrder inOrder = inOrder(itemRepository, bookingRepository, userService, commentRepository);
         inOrder.verify(itemRepository, times(1))
                 .findById(expectedComment.getItem().getId());
+        inOrder.verify(bookingRepository, times(1))
+                .existsByBookerIdAndItemIdAndStatusAndStartBefore(eq(owner.getId()), eq(item.getId()),
+                        eq(BookingStatus.APPROVED), any());
         inOrder.verify(userService, times(1))
                 .getById(expectedComment.getAuthor().getId());
         inOrder.verify(commentRepository, times(1))
@@ -307,12 +385,40 @@ class ItemServiceImplTest {
     @Test
     void saveComment_whenBookerIsNotExist_thenBadRequestExceptionThrownTest() {
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        item.getBookings().clear();
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndStartBefore(eq(userId), eq(item.getId()),
+                eq(BookingStatus.APPROVED), any()))
+                .thenReturn(false);
 
         assertThrows(BadRequestException.class,
-                () -> itemService.saveComment(new Comment(), anyLong(), item.getId()));
+                () -> itemService.saveComment(new Comment(), userId, item.getId()));
         verify(itemRepository, times(1))
                 .findById(item.getId());
         verify(commentRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getLastAndNextBookings_whenUserIsOwner_thenReturnBookingsFromSummaryTest() {
+        final ItemBookings summary = ItemBookings.builder()
+                .lastBooking(BookingDto.Nested.builder().id(1L).build())
+                .nextBooking(BookingDto.Nested.builder().id(2L).build())
+                .bookingsCount(1L)
+                .build();
+        when(summaryService.getItemBookings(List.of(item.getId())))
+                .thenReturn(Map.of(item.getId(), summary));
+
+        final Map<Long, ItemBookings> itemBookings = itemService.getLastAndNextBookings(List.of(item), userId);
+
+        assertEquals(Map.of(item.getId(), summary), itemBookings);
+        verify(summaryService, times(1))
+                .getItemBookings(List.of(item.getId()));
+    }
+
+    @Test
+    void getLastAndNextBookings_whenUserIsNotOwner_thenSummaryIsNotRequestedForItemTest() {
+        final Map<Long, ItemBookings> itemBookings = itemService.getLastAndNextBookings(List.of(item), 99L);
+
+        assertTrue(itemBookings.isEmpty());
+        verify(summaryService, times(1))
+                .getItemBookings(List.of());
+    }
+}
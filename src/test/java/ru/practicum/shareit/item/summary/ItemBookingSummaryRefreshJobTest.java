@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.summary;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ItemBookingSummaryRefreshJobTest {
+
+    ItemBookingSummaryService summaryService;
+    MeterRegistry registry;
+    ItemBookingSummaryRefreshJob job;
+
+    @BeforeEach
+    void beforeEach() {
+        summaryService = mock(ItemBookingSummaryService.class);
+        registry = new SimpleMeterRegistry();
+        job = new ItemBookingSummaryRefreshJob(summaryService, registry, 2);
+    }
+
+    @Test
+    void refresh_whenFullBatchesRefreshed_thenNextBatchRequestedTest() {
+        // Этап 1. Подготовка.
+        final LocalDateTime now = LocalDateTime.now();
+        when(summaryService.refreshStale(now, 2))
+                .thenReturn(2, 2, 1);
+
+        // Этап 2. Выполнение.
+        final long count = job.refresh(now);
+
+        // Этап 3. Проверка.
+        assertEquals(5L, count);
+        assertEquals(5.0, registry.get("shareit.items.summaries.refreshed").counter().count());
+        verify(summaryService, times(3))
+                .refreshStale(now, 2);
+    }
+
+    @Test
+    void refresh_whenNothingStale_thenSingleBatchRequestedTest() {
+        final LocalDateTime now = LocalDateTime.now();
+        when(summaryService.refreshStale(now, 2))
+                .thenReturn(0);
+
+        assertEquals(0L, job.refresh(now));
+        verify(summaryService, times(1))
+                .refreshStale(now, 2);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.tracing.SpanRecord;
+import ru.practicum.shareit.tracing.Tracer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceMetricsAspectTest {
+
+    SimpleMeterRegistry registry;
+    Tracer tracer;
+    TestService service;
+
+    @BeforeEach
+    void beforeEach() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TestService());
+        tracer = new Tracer(16, 0);
+        factory.addAspect(new ServiceMetricsAspect(registry, tracer));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void time_whenMethodSucceeds_thenTimerRecordedWithoutExceptionTest() {
+        assertEquals("result", service.get());
+        assertEquals("result", service.get());
+
+        assertEquals(2, registry.get("shareit.service")
+                .tag("class", "TestService")
+                .tag("method", "get")
+                .tag("exception", "none")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void time_whenMethodThrows_thenTimerRecordedWithExceptionTypeTest() {
+        assertThrows(NotFoundException.class, () -> service.fail());
+
+        assertEquals(1, registry.get("shareit.service")
+                .tag("method", "fail")
+                .tag("exception", "NotFoundException")
+                .timer()
+                .count());
+        final SpanRecord span = tracer.getRecentSpans().get(0);
+        assertEquals("TestService.fail", span.getName());
+        assertEquals("NotFoundException", span.getError());
+    }
+
+    @Service
+    static class TestService {
+        public String get() {
+            return "result";
+        }
+
+        public void fail() {
+            throw new NotFoundException("Test", 1L);
+        }
+    }
+}
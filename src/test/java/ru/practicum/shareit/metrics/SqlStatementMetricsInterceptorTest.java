@@ -0,0 +1,40 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlStatementMetricsInterceptorTest {
+
+    @Test
+    void afterCompletion_whenStatementsInspected_thenCountRecordedByUriPatternTest() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SqlStatementMetricsInterceptor interceptor = new SqlStatementMetricsInterceptor(registry);
+        final SqlStatementCounter counter = new SqlStatementCounter();
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{itemId}");
+
+        // Этап 1: запросы, выполненные до обработки HTTP-запроса, не учитываются.
+        counter.inspect("select 1");
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        // Этап 2: выполним три запроса во время обработки.
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+        counter.inspect("select 3");
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+
+        final DistributionSummary summary = registry.get("shareit.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/items/{itemId}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+        assertEquals(0, SqlStatementCounter.get());
+    }
+}
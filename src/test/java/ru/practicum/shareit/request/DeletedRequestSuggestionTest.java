@@ -0,0 +1,116 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что удаленный запрос не попадает в подборки и не мешает сохранению вещи,
+ * даже если индекс подбора еще ссылается на него.
+ */
+@SpringBootTest(properties = "shareit.bookings.expiration.enabled=false")
+class DeletedRequestSuggestionTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    RequestSuggestionRepository suggestionRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    RequestMatchingIndex matchingIndex;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    User owner;
+    User requestor;
+    ItemRequest request;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("suggestion-owner@email.com")
+                .build());
+        requestor = userRepository.save(User.builder()
+                .name("requestor")
+                .email("suggestion-requestor@email.com")
+                .build());
+        request = requestRepository.save(ItemRequest.builder()
+                .description("Нужна дрель")
+                .created(LocalDateTime.now())
+                .requestor(requestor)
+                .build());
+        matchingIndex.index(request);
+    }
+
+    @AfterEach
+    void afterEach() {
+        matchingIndex.remove(request.getId());
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void save_whenIndexedRequestDeletedBypassingServices_thenItemSavedWithoutSuggestionTest() {
+        // Этап 1: удалим запрос в обход сервисов, индекс подбора по-прежнему ссылается на него.
+        requestRepository.deleteById(request.getId());
+
+        // Этап 2: сохраним подходящую под запрос вещь.
+        final Item item = itemService.save(owner.getId(), drill(), 0L);
+
+        // Этап 3: вещь сохранена, подборка на удаленный запрос не создана, запрос убран из индекса.
+        assertTrue(itemRepository.findById(item.getId()).isPresent());
+        assertEquals(0, suggestionRepository.count());
+        assertTrue(matchingIndex.match("Дрель", "Нужна дрель", owner.getId(), 10).isEmpty());
+    }
+
+    @Test
+    void deleteById_whenRequestorDeleted_thenRequestRemovedFromIndexTest() {
+        // Этап 1: удалим автора запроса вместе с запросом.
+        userService.deleteById(requestor.getId());
+
+        // Этап 2: подбор больше не находит запрос, новая вещь сохраняется.
+        assertTrue(matchingIndex.match("Дрель", "Нужна дрель", owner.getId(), 10).isEmpty());
+        final Item item = itemService.save(owner.getId(), drill(), 0L);
+
+        // Этап 3: вещь сохранена без подборок.
+        assertTrue(itemRepository.findById(item.getId()).isPresent());
+        assertEquals(0, suggestionRepository.count());
+    }
+
+    private static Item drill() {
+        return Item.builder()
+                .name("Дрель")
+                .description("Ударная дрель")
+                .available(true)
+                .build();
+    }
+}
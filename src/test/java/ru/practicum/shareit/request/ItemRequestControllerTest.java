@@ -6,11 +6,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.request.service.RequestSuggestionService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -26,6 +32,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +46,12 @@ class ItemRequestControllerTest {
     @MockBean
     RequestService requestService;
 
+    @MockBean
+    ItemService itemService;
+
+    @MockBean
+    RequestSuggestionService suggestionService;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -154,7 +167,7 @@ class ItemRequestControllerTest {
                 .size(30)
                 .build();
         when(requestService.getAll(eq(userId), eq(defaultParams)))
-                .thenReturn(List.of(itemRequest));
+                .thenReturn(new SliceImpl<>(List.of(itemRequest)));
 
         mockMvc.perform(get("/requests/all")
                         .header(headerUserId, userId)
@@ -168,9 +181,60 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].description", is(itemRequestDto.getDescription())))
                 .andExpect(jsonPath("$[0].created", is(itemRequestDto.getCreated()
                         .format(dateTimeFormatter))))
-                .andExpect(jsonPath("$", hasSize(1)));
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
 
         verify(requestService, times(1))
                 .getAll(eq(userId), eq(defaultParams));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAll_whenNextPageExists_thenNextCursorReturnedAndAcceptedTest() throws Exception {
+        final String cursor = new KeysetCursor(itemRequest.getCreated(), itemRequest.getId()).encode();
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(0)
+                .size(1)
+                .cursor(cursor)
+                .build();
+        when(requestService.getAll(eq(userId), eq(params)))
+                .thenReturn(new SliceImpl<>(List.of(itemRequest), PageRequest.of(0, 1), true));
+
+        // Курсор из заголовка ответа передается в следующий запрос без изменений.
+        mockMvc.perform(get("/requests/all")
+                        .header(headerUserId, userId)
+                        .param("size", "1")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Next-Cursor", cursor));
+    }
+
+    @Test
+    void getSuggestions_whenInvoked_thenResponseStatusOkWithSuggestedItemsInBodyTest() throws Exception {
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(0)
+                .size(10)
+                .build();
+        final Item item = Item.builder()
+                .id(2L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build();
+        when(suggestionService.getSuggestedItems(itemRequest.getId(), userId, params))
+                .thenReturn(List.of(item));
+
+        mockMvc.perform(get("/requests/{requestId}/suggestions", itemRequest.getId())
+                        .header(headerUserId, userId)
+                        .param("size", params.getSize().toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(item.getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(item.getName())))
+                .andExpect(jsonPath("$[0].requestId", is(0)));
+
+        verify(suggestionService, times(1))
+                .getSuggestedItems(itemRequest.getId(), userId, params);
+    }
+}
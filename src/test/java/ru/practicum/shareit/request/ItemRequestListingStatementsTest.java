@@ -0,0 +1,141 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что число SQL-запросов при получении списков запросов не зависит от числа запросов и их вещей.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@AutoConfigureMockMvc
+class ItemRequestListingStatementsTest {
+
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    Statistics statistics;
+    User reader;
+    User requestor;
+    int requestCount;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        reader = saveUser("reader");
+        requestor = saveUser("requestor");
+    }
+
+    @Test
+    void getAll_whenMoreRequestsAndItems_thenNumberOfStatementsNotChangedTest() throws Exception {
+        // Этап 1: две заявки с одной вещью у одного владельца.
+        seedRequests(2, 1);
+        final long fewRequestsStatements = countStatements("/requests/all", reader, 2);
+
+        // Этап 2: двенадцать заявок по три вещи у разных владельцев.
+        seedRequests(10, 3);
+        final long manyRequestsStatements = countStatements("/requests/all", reader, 12);
+
+        // Этап 3: срез запросов без подсчета строк и вещи с владельцами.
+        assertEquals(fewRequestsStatements, manyRequestsStatements);
+        assertTrue(manyRequestsStatements <= 2, "Expected at most 2 statements, but was " + manyRequestsStatements);
+    }
+
+    @Test
+    void getAllUsersRequests_whenMoreRequestsAndItems_thenNumberOfStatementsNotChangedTest() throws Exception {
+        // Первый вызов загружает пользователя в кэш, чтобы проверка существования не влияла на подсчет.
+        countStatements("/requests", requestor, 0);
+        seedRequests(2, 1);
+        final long fewRequestsStatements = countStatements("/requests", requestor, 2);
+
+        seedRequests(10, 3);
+        final long manyRequestsStatements = countStatements("/requests", requestor, 12);
+
+        // Запросы пользователя и вещи с владельцами.
+        assertEquals(fewRequestsStatements, manyRequestsStatements);
+        assertTrue(manyRequestsStatements <= 2, "Expected at most 2 statements, but was " + manyRequestsStatements);
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private long countStatements(String path, User user, int expectedRequests) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get(path)
+                        .header(HEADER_USER_ID, user.getId())
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(expectedRequests)));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedRequests(int requests, int itemsPerRequest) {
+        for (int i = 0; i < requests; i++) {
+            requestCount++;
+            ItemRequest request = requestRepository.save(ItemRequest.builder()
+                    .description("request" + requestCount)
+                    .created(LocalDateTime.now().minusMinutes(requestCount))
+                    .requestor(requestor)
+                    .build());
+            for (int j = 0; j < itemsPerRequest; j++) {
+                itemRepository.save(Item.builder()
+                        .name("item" + requestCount + "-" + j)
+                        .description("description")
+                        .available(true)
+                        .owner(saveUser("owner" + requestCount + "-" + j))
+                        .request(request)
+                        .build());
+            }
+        }
+    }
+
+    private User saveUser(String name) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(name + "@email.com")
+                .build());
+    }
+}
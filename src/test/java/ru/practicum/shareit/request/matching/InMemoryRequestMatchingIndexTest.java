@@ -0,0 +1,61 @@
+package ru.practicum.shareit.request.matching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRequestMatchingIndexTest {
+
+    final Long ownerId = 10L;
+
+    InMemoryRequestMatchingIndex matchingIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        matchingIndex = new InMemoryRequestMatchingIndex();
+        matchingIndex.index(1L, 20L, "Нужна дрель на выходные");
+        matchingIndex.index(2L, 21L, "Ищу ударную дрель для бетона");
+        matchingIndex.index(3L, 22L, "Возьму палатку для похода");
+        matchingIndex.index(4L, ownerId, "Нужна дрель");
+    }
+
+    @Test
+    void stems_whenWordsDifferInEndingOrAreShort_thenSameStemsAndShortWordsSkippedTest() {
+        assertEquals(InMemoryRequestMatchingIndex.stems("дрель"), InMemoryRequestMatchingIndex.stems("ДРЕЛИ"));
+        assertEquals(InMemoryRequestMatchingIndex.stems("дрель"), InMemoryRequestMatchingIndex.stems("дрелью"));
+        assertEquals(Set.of("бето"), InMemoryRequestMatchingIndex.stems("для, на - бетон!"));
+        assertTrue(InMemoryRequestMatchingIndex.stems(null).isEmpty());
+    }
+
+    @Test
+    void match_whenItemSharesWords_thenRequestsOrderedByScoreWithoutOwnerRequestsTest() {
+        final List<RequestMatch> matches = matchingIndex.match("Дрель ударная", "Сверлит бетон", ownerId, 10);
+
+        assertEquals(List.of(new RequestMatch(2L, 3), new RequestMatch(1L, 1)), matches);
+    }
+
+    @Test
+    void match_whenLimitIsLessThanMatches_thenBestMatchesReturnedTest() {
+        assertEquals(List.of(new RequestMatch(2L, 3)),
+                matchingIndex.match("Дрель ударная", "Сверлит бетон", ownerId, 1));
+    }
+
+    @Test
+    void match_whenNoCommonWords_thenReturnEmptyListTest() {
+        assertTrue(matchingIndex.match("Лодка", "Надувная лодка", ownerId, 10).isEmpty());
+    }
+
+    @Test
+    void remove_whenRequestRemovedOrReindexed_thenOnlyActualDescriptionMatchesTest() {
+        matchingIndex.remove(1L);
+        matchingIndex.index(3L, 22L, "Возьму дрель");
+
+        assertEquals(List.of(new RequestMatch(2L, 1), new RequestMatch(3L, 1)),
+                matchingIndex.match("Дрель", "Простая", ownerId, 10));
+        assertTrue(matchingIndex.match("Палатка", "Туристическая", ownerId, 10).isEmpty());
+    }
+}
@@ -5,8 +5,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -19,6 +20,8 @@ import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
 class RequestRepositoryTest {
 
+    static final Sort REQUESTS_SORT = Sort.by(Sort.Direction.DESC, "created", "id");
+
     @Autowired
     RequestRepository requestRepository;
 
@@ -61,13 +64,36 @@ class RequestRepositoryTest {
     }
 
     @Test
-    void findByRequestorIdNotOrderByCreatedDescTest() {
-        final PageRequest pr = PageRequest.of(0, 30);
-        final Page<ItemRequest> byNotRequestor = requestRepository.findByRequestorIdNotOrderByCreatedDesc(user1.getId(), pr);
+    void findByRequestorIdNotTest() {
+        final ItemRequest itemRequest3 = requestRepository.save(ItemRequest.builder()
+                .description("ItemDescription3")
+                .created(itemRequest2.getCreated())
+                .requestor(user2)
+                .build());
+
+        final Slice<ItemRequest> firstSlice = requestRepository.findByRequestorIdNot(user1.getId(),
+                PageRequest.of(0, 1, REQUESTS_SORT));
+
+        // Запросы с одинаковой датой упорядочены по убыванию id.
+        assertEquals(List.of(itemRequest3), firstSlice.getContent());
+        assertTrue(firstSlice.hasNext());
+
+        final Slice<ItemRequest> nextSlice = requestRepository.findByRequestorIdNotAfter(user1.getId(),
+                itemRequest3.getCreated(), itemRequest3.getId(), PageRequest.of(0, 1, REQUESTS_SORT));
 
-        assertNotNull(byNotRequestor);
-        assertEquals(List.of(itemRequest2), byNotRequestor.getContent());
-     }
+        assertEquals(List.of(itemRequest2), nextSlice.getContent());
+        assertFalse(nextSlice.hasNext());
+        assertTrue(requestRepository.findByRequestorIdNotAfter(user1.getId(), itemRequest2.getCreated(),
+                itemRequest2.getId(), PageRequest.of(0, 1, REQUESTS_SORT)).isEmpty());
+    }
+
+    @Test
+    void findAllByIdForShare_whenSomeRequestsMissing_thenOnlyExistingReturnedTest() {
+        final List<ItemRequest> requests = requestRepository.findAllByIdForShare(
+                List.of(itemRequest2.getId(), itemRequest1.getId(), itemRequest2.getId() + 100));
+
+        assertEquals(List.of(itemRequest1, itemRequest2), requests);
+    }
 
     @AfterEach
     void afterEach() {
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.request.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.matching.RequestMatchingDocument;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class RequestSuggestionRepositoryTest {
+
+    @Autowired
+    RequestSuggestionRepository suggestionRepository;
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    User owner;
+    User requestor;
+    ItemRequest openRequest;
+    ItemRequest fulfilledRequest;
+    Item bestItem;
+    Item worstItem;
+    Item unavailableItem;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder()
+                .email("owner@email")
+                .name("owner")
+                .build());
+        requestor = userRepository.save(User.builder()
+                .email("requestor@email")
+                .name("requestor")
+                .build());
+        openRequest = saveRequest("Нужна дрель");
+        fulfilledRequest = saveRequest("Нужна палатка");
+        bestItem = saveItem("Дрель ударная", true, null);
+        worstItem = saveItem("Дрель", true, fulfilledRequest);
+        unavailableItem = saveItem("Дрель сломанная", false, null);
+        saveSuggestion(worstItem, 1);
+        saveSuggestion(bestItem, 2);
+        saveSuggestion(unavailableItem, 3);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findItemsByRequestIdTest() {
+        final List<Item> items = suggestionRepository.findItemsByRequestId(openRequest.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(bestItem, worstItem), items);
+        assertEquals(fulfilledRequest.getId(), items.get(1).getRequest().getId());
+        assertEquals(List.of(bestItem), suggestionRepository.findItemsByRequestId(openRequest.getId(),
+                PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void deleteByItemIdTest() {
+        assertEquals(1, suggestionRepository.deleteByItemId(bestItem.getId()));
+
+        assertEquals(List.of(worstItem), suggestionRepository.findItemsByRequestId(openRequest.getId(),
+                PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findOpenByIdGreaterThanTest() {
+        final List<RequestMatchingDocument> documents = requestRepository.findOpenByIdGreaterThan(0L,
+                PageRequest.of(0, 10));
+
+        assertEquals(List.of(openRequest.getId()), documents.stream()
+                .map(RequestMatchingDocument::getId)
+                .collect(Collectors.toList()));
+        assertEquals(requestor.getId(), documents.get(0).getRequestorId());
+        assertEquals(openRequest.getDescription(), documents.get(0).getDescription());
+        assertTrue(requestRepository.findOpenByIdGreaterThan(openRequest.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @AfterEach
+    void afterEach() {
+        suggestionRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private ItemRequest saveRequest(String description) {
+        return requestRepository.save(ItemRequest.builder()
+                .description(description)
+                .created(LocalDateTime.now())
+                .requestor(requestor)
+                .build());
+    }
+
+    private Item saveItem(String name, boolean available, ItemRequest request) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description(name)
+                .available(available)
+                .owner(owner)
+                .request(request)
+                .build());
+    }
+
+    private void saveSuggestion(Item item, int score) {
+        suggestionRepository.save(RequestSuggestion.builder()
+                .request(openRequest)
+                .item(item)
+                .score(score)
+                .created(LocalDateTime.now())
+                .build());
+    }
+}
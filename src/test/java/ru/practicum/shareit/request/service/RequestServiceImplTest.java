@@ -7,11 +7,14 @@ import org.mockito.Captor;
 import org.mockito.InOrder;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.request.ItemRequestRequestParam;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -23,6 +26,7 @@ import java.util.Optional;
 
 import static java.time.LocalDateTime.of;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
 
@@ -31,6 +35,7 @@ class RequestServiceImplTest {
 
     RequestRepository requestRepository;
     UserService userService;
+    RequestMatchingIndex matchingIndex;
     RequestService requestService;
 
     @Captor
@@ -53,8 +58,9 @@ class RequestServiceImplTest {
     @BeforeEach
     void beforeEach() {
         userService = mock(UserService.class);
+        matchingIndex = mock(RequestMatchingIndex.class);
         requestRepository = mock(RequestRepository.class);
-        requestService = new RequestServiceImpl(requestRepository, userService);
+        requestService = new RequestServiceImpl(requestRepository, userService, matchingIndex);
     }
 
     @Test
@@ -149,6 +155,10 @@ class RequestServiceImplTest {
                 .getById(anotherUserId);
         inOrder.verify(requestRepository, times(1))
                 .save(argumentRequest);
+
+        // Без транзакции новый запрос сразу попадает в индекс подбора.
+        verify(matchingIndex, times(1))
+                .index(returnedRequest);
     }
 
     @Test
@@ -194,15 +204,63 @@ class RequestServiceImplTest {
                 .from(0)
                 .size(30)
                 .build();
-        final PageRequest pr = PageRequest.of(params.getFrom(), params.getSize());
-        final Page<ItemRequest> page = new PageImpl<>(List.of(itemRequest));
-        when(requestRepository.findByRequestorIdNotOrderByCreatedDesc(userId, pr)).thenReturn(page);
+        when(requestRepository.findByRequestorIdNot(eq(userId), any()))
+                .thenReturn(new SliceImpl<>(List.of(itemRequest)));
 
-        final List<ItemRequest> requests = requestService.getAll(userId, params);
+        final Slice<ItemRequest> requests = requestService.getAll(userId, params);
 
         assertNotNull(requests);
-        assertEquals(List.of(itemRequest), requests);
+        assertEquals(List.of(itemRequest), requests.getContent());
+        verify(requestRepository, times(1))
+                .findDistinctByIdIn(List.of(itemRequest.getId()));
+    }
+
+    @Test
+    void getAll_whenFromIsNotMultipleOfSize_thenFromUsedAsOffsetTest() {
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(5)
+                .size(2)
+                .build();
+        when(requestRepository.findByRequestorIdNot(eq(userId), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        requestService.getAll(userId, params);
+
+        // Смещение равно from, а не номеру страницы, умноженному на size; запрос количества строк не выполняется.
+        verify(requestRepository, times(1))
+                .findByRequestorIdNot(eq(userId), argThat(pageable -> pageable.getOffset() == 5
+                        && pageable.getPageSize() == 2
+                        && pageable.getSort().equals(Sort.by(Sort.Direction.DESC, "created", "id"))));
+        verify(requestRepository, never())
+                .findDistinctByIdIn(any());
+    }
+
+    @Test
+    void getAll_whenCursorPassed_thenRequestsAfterCursorReturnedTest() {
+        final KeysetCursor cursor = new KeysetCursor(time, 7L);
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(0)
+                .size(2)
+                .cursor(cursor.encode())
+                .build();
+        when(requestRepository.findByRequestorIdNotAfter(eq(userId), eq(time), eq(7L), any()))
+                .thenReturn(new SliceImpl<>(List.of(itemRequest)));
+
+        assertEquals(List.of(itemRequest), requestService.getAll(userId, params).getContent());
         verify(requestRepository, times(1))
-                .findByRequestorIdNotOrderByCreatedDesc(userId, pr);
+                .findByRequestorIdNotAfter(eq(userId), eq(time), eq(7L), argThat(pageable ->
+                        pageable.getOffset() == 0 && pageable.getPageSize() == 2));
+        verify(requestRepository, never())
+                .findByRequestorIdNot(any(), any());
+    }
+
+    @Test
+    void getAll_whenPagingIsIncorrect_thenBadRequestExceptionThrownTest() {
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(0)
+                .size(0)
+                .build();
+
+        assertThrows(BadRequestException.class, () -> requestService.getAll(userId, params));
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRequestParam;
+import ru.practicum.shareit.request.matching.RequestMatch;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RequestSuggestionServiceImplTest {
+
+    RequestSuggestionRepository suggestionRepository;
+    RequestRepository requestRepository;
+    RequestService requestService;
+    RequestMatchingIndex matchingIndex;
+    RequestSuggestionService suggestionService;
+
+    User owner;
+    ItemRequest linkedRequest;
+    ItemRequest matchedRequest;
+    Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        suggestionRepository = mock(RequestSuggestionRepository.class);
+        requestRepository = mock(RequestRepository.class);
+        requestService = mock(RequestService.class);
+        matchingIndex = mock(RequestMatchingIndex.class);
+        suggestionService = new RequestSuggestionServiceImpl(suggestionRepository, requestRepository, requestService,
+                matchingIndex);
+
+        owner = User.builder()
+                .id(1L)
+                .name("owner")
+                .email("owner@email.com")
+                .build();
+        linkedRequest = ItemRequest.builder()
+                .id(1L)
+                .description("Нужна дрель")
+                .build();
+        matchedRequest = ItemRequest.builder()
+                .id(2L)
+                .description("Ищу дрель")
+                .build();
+        item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .request(linkedRequest)
+                .build();
+        when(requestRepository.findAllByIdForShare(Set.of(matchedRequest.getId())))
+                .thenReturn(List.of(matchedRequest));
+    }
+
+    @Test
+    void onItemsSaved_whenRequestsMatch_thenSuggestionsSavedAndLinkedRequestClosedTest() {
+        // Этап 1. Подготовка.
+        when(matchingIndex.match(item.getName(), item.getDescription(), owner.getId(),
+                RequestSuggestionServiceImpl.MAX_SUGGESTIONS_PER_ITEM))
+                .thenReturn(List.of(new RequestMatch(matchedRequest.getId(), 2),
+                        new RequestMatch(linkedRequest.getId(), 1)));
+
+        // Этап 2. Выполнение.
+        suggestionService.onItemsSaved(List.of(item));
+
+        // Этап 3. Проверка.
+        // Явно указанный запрос не попадает в подборки и удаляется из индекса.
+        verify(suggestionRepository, times(1))
+                .saveAll(argThat(suggestions -> {
+                    List<RequestSuggestion> list = (List<RequestSuggestion>) suggestions;
+                    return list.size() == 1
+                            && list.get(0).getRequest().equals(matchedRequest)
+                            && list.get(0).getItem().equals(item)
+                            && list.get(0).getScore() == 2;
+                }));
+        verify(matchingIndex, times(1))
+                .remove(linkedRequest.getId());
+        verify(requestRepository, times(1))
+                .findAllByIdForShare(Set.of(matchedRequest.getId()));
+        verify(matchingIndex, never())
+                .remove(matchedRequest.getId());
+    }
+
+    @Test
+    void onItemsSaved_whenMatchedRequestDeleted_thenSuggestionSkippedAndRequestRemovedFromIndexTest() {
+        // Этап 1. Подготовка: индекс еще содержит удаленный запрос.
+        item.setRequest(null);
+        when(matchingIndex.match(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(new RequestMatch(matchedRequest.getId(), 1)));
+        when(requestRepository.findAllByIdForShare(Set.of(matchedRequest.getId())))
+                .thenReturn(List.of());
+
+        // Этап 2. Выполнение.
+        suggestionService.onItemsSaved(List.of(item));
+
+        // Этап 3. Проверка: подборка не сохраняется, запрос удален из индекса.
+        verify(suggestionRepository, times(1))
+                .saveAll(List.of());
+        verify(matchingIndex, times(1))
+                .remove(matchedRequest.getId());
+    }
+
+    @Test
+    void onItemsSaved_whenMatchingFails_thenNoSuggestionsAndNoExceptionTest() {
+        when(matchingIndex.match(any(), any(), any(), anyInt()))
+                .thenThrow(new IllegalStateException("Index is broken"));
+
+        assertDoesNotThrow(() -> suggestionService.onItemsSaved(List.of(item)));
+        verify(requestRepository, never())
+                .findAllByIdForShare(any());
+        verify(suggestionRepository, times(1))
+                .saveAll(List.of());
+    }
+
+    @Test
+    void onItemsSaved_whenItemIsNotAvailable_thenRequestsNotMatchedTest() {
+        item.setAvailable(false);
+
+        suggestionService.onItemsSaved(List.of(item));
+
+        verify(matchingIndex, never())
+                .match(any(), any(), any(), anyInt());
+        verify(suggestionRepository, times(1))
+                .saveAll(List.of());
+    }
+
+    @Test
+    void onItemUpdated_whenInvoked_thenOldSuggestionsReplacedTest() {
+        when(matchingIndex.match(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(new RequestMatch(matchedRequest.getId(), 1)));
+
+        suggestionService.onItemUpdated(item);
+
+        verify(suggestionRepository, times(1))
+                .deleteByItemId(item.getId());
+        verify(suggestionRepository, times(1))
+                .saveAll(argThat(suggestions -> ((List<RequestSuggestion>) suggestions).size() == 1));
+    }
+
+    @Test
+    void getSuggestedItems_whenRequestExists_thenReturnItemsPageTest() {
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(0)
+                .size(10)
+                .build();
+        when(suggestionRepository.findItemsByRequestId(eq(matchedRequest.getId()), any()))
+                .thenReturn(List.of(item));
+
+        assertEquals(List.of(item), suggestionService.getSuggestedItems(matchedRequest.getId(), 2L, params));
+        verify(requestService, times(1))
+                .getById(matchedRequest.getId(), 2L);
+        verify(suggestionRepository, times(1))
+                .findItemsByRequestId(eq(matchedRequest.getId()),
+                        argThat((Pageable pageable) -> pageable.getOffset() == 0 && pageable.getPageSize() == 10));
+    }
+
+    @Test
+    void getSuggestedItems_whenRequestNotFound_thenNotFoundExceptionThrownTest() {
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(0)
+                .size(10)
+                .build();
+        when(requestService.getById(anyLong(), anyLong()))
+                .thenThrow(new NotFoundException(ItemRequest.class.getSimpleName(), 99L));
+
+        assertThrows(NotFoundException.class, () -> suggestionService.getSuggestedItems(99L, 2L, params));
+        verify(suggestionRepository, never())
+                .findItemsByRequestId(any(), any());
+    }
+
+    @Test
+    void getSuggestedItems_whenPagingIsIncorrect_thenBadRequestExceptionThrownTest() {
+        final ItemRequestRequestParam params = ItemRequestRequestParam.builder()
+                .from(-1)
+                .size(10)
+                .build();
+
+        assertThrows(BadRequestException.class,
+                () -> suggestionService.getSuggestedItems(matchedRequest.getId(), 2L, params));
+    }
+}
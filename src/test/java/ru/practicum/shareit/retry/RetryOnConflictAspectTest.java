@@ -0,0 +1,72 @@
+package ru.practicum.shareit.retry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryOnConflictAspectTest {
+
+    @Test
+    void retry_whenConflictOnFirstAttempts_thenMethodRepeatedUntilSuccessTest() {
+        final ConflictingService service = createProxy(new ConflictingService(2));
+
+        assertEquals("done", service.update());
+        assertEquals(3, service.getAttempts());
+    }
+
+    @Test
+    void retry_whenConflictOnAllAttempts_thenConflictPassedToCallerTest() {
+        final ConflictingService service = createProxy(new ConflictingService(Integer.MAX_VALUE));
+
+        assertThrows(OptimisticLockingFailureException.class, service::update);
+        assertEquals(3, service.getAttempts());
+    }
+
+    @Test
+    void retry_whenOtherException_thenMethodNotRepeatedTest() {
+        final ConflictingService service = createProxy(new ConflictingService(0));
+
+        assertThrows(IllegalStateException.class, service::fail);
+        assertEquals(1, service.getAttempts());
+    }
+
+    private static ConflictingService createProxy(ConflictingService target) {
+        final AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RetryOnConflictAspect());
+
+        return factory.getProxy();
+    }
+
+    static class ConflictingService {
+        private final int conflicts;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        ConflictingService(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @RetryOnConflict
+        public String update() {
+            if (attempts.incrementAndGet() <= conflicts) {
+                throw new OptimisticLockingFailureException("Conflict");
+            }
+
+            return "done";
+        }
+
+        @RetryOnConflict
+        public void fail() {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        }
+
+        public int getAttempts() {
+            return attempts.get();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    @Test
+    void endTrace_whenDebugTrace_thenNestedSpansRecordedInStartOrderTest() {
+        final Tracer tracer = new Tracer(16, 0);
+
+        final Trace trace = tracer.beginTrace(true);
+        try (Span outer = tracer.start("outer")) {
+            try (Span inner = tracer.start("inner")) {
+                inner.setError(new IllegalStateException());
+            }
+        }
+        tracer.endTrace(trace, "GET", "/items", 200);
+
+        final List<SpanRecord> spans = trace.getSpansByStart();
+        assertEquals(List.of("outer", "inner"), spans.stream().map(SpanRecord::getName).collect(Collectors.toList()));
+        assertEquals(0, spans.get(0).getDepth());
+        assertEquals(1, spans.get(1).getDepth());
+        assertEquals("IllegalStateException", spans.get(1).getError());
+        assertTrue(spans.get(0).getDurationNanos() >= spans.get(1).getDurationNanos());
+        assertEquals(trace.getId(), spans.get(1).getTraceId());
+    }
+
+    @Test
+    void start_whenTraceIsNotSampled_thenSpansOnlyWrittenToRingBufferTest() {
+        final Tracer tracer = new Tracer(16, 0);
+
+        final Trace trace = tracer.beginTrace(false);
+        tracer.start("operation").close();
+        tracer.endTrace(trace, "GET", "/items", 200);
+
+        assertFalse(trace.isRecording());
+        assertTrue(trace.getSpans().isEmpty());
+        assertEquals("operation", tracer.getRecentSpans().get(0).getName());
+    }
+
+    @Test
+    void beginTrace_whenSampleRateIsOne_thenEveryTraceIsSampledTest() {
+        final Tracer tracer = new Tracer(16, 1);
+
+        final Trace trace = tracer.beginTrace(false);
+        tracer.endTrace(trace, "GET", "/items", 200);
+
+        assertTrue(trace.isSampled());
+    }
+
+    @Test
+    void getRecentSpans_whenBufferOverflows_thenOnlyLatestSpansKeptTest() {
+        final Tracer tracer = new Tracer(3, 0);
+
+        for (int i = 0; i < 5; i++) {
+            tracer.start("span" + i).close();
+        }
+
+        assertEquals(List.of("span2", "span3", "span4"), tracer.getRecentSpans().stream()
+                .map(SpanRecord::getName)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingFilterTest {
+
+    final Tracer tracer = new Tracer(16, 0);
+    final TracingFilter filter = new TracingFilter(tracer);
+
+    @Test
+    void doFilter_whenDebugHeaderPassed_thenTraceIdReturnedTest() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader(TracingFilter.DEBUG_HEADER, "true");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        final String traceId = response.getHeader(TracingFilter.TRACE_ID_HEADER);
+        assertNotNull(traceId);
+        final SpanRecord span = tracer.getRecentSpans().get(0);
+        assertEquals("GET /items/1", span.getName());
+        assertEquals(traceId, span.getTraceId());
+    }
+
+    @Test
+    void doFilter_whenRequestIsNotSampled_thenTraceIdNotReturnedTest() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items/1"), response, new MockFilterChain());
+
+        assertNull(response.getHeader(TracingFilter.TRACE_ID_HEADER));
+        assertEquals(1, tracer.getRecentSpans().size());
+    }
+}
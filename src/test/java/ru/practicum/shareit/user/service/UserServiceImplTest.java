@@ -6,7 +6,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.request.matching.RequestMatchingIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -22,6 +29,10 @@ class UserServiceImplTest {
 
     UserService userService;
     UserRepository userRepository;
+    ItemSearchIndex searchIndex;
+    BookingIntervalIndex intervalIndex;
+    ItemBookingSummaryService summaryService;
+    RequestMatchingIndex matchingIndex;
     User user1;
 
     @Captor
@@ -30,7 +41,11 @@ class UserServiceImplTest {
     @BeforeEach
     void beforeEach() {
         userRepository = mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        searchIndex = mock(ItemSearchIndex.class);
+        intervalIndex = mock(BookingIntervalIndex.class);
+        summaryService = mock(ItemBookingSummaryService.class);
+        matchingIndex = mock(RequestMatchingIndex.class);
+        userService = new UserServiceImpl(userRepository, searchIndex, intervalIndex, summaryService, matchingIndex);
         user1 = User.builder().id(1L).name("User1").email("User1@email").build();
     }
 
@@ -145,22 +160,66 @@ class UserServiceImplTest {
                 .deleteById((user1.getId()));
     }
 
+    @Test
+    void deleteById_whenUserHasItems_thenItemsRemovedFromSearchIndexTest() {
+        final Item item = Item.builder().id(10L).owner(user1).build();
+        user1.getItems().add(item);
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+
+        userService.deleteById(user1.getId());
+
+        // Вне транзакции действие после фиксации выполняется сразу.
+        verify(searchIndex, times(1)).remove(item.getId());
+        verify(userRepository, times(1)).deleteById(user1.getId());
+    }
+
+    @Test
+    void deleteById_whenUserHasBookings_thenBookingsRemovedFromIntervalIndexTest() {
+        final User owner = User.builder().id(2L).name("Owner").email("owner@email").build();
+        final Item ownItem = Item.builder().id(10L).owner(user1).build();
+        final Item bookedItem = Item.builder().id(11L).owner(owner).build();
+        final Booking ownItemBooking = Booking.builder().id(20L).item(ownItem).booker(owner).build();
+        final Booking userBooking = Booking.builder().id(21L).item(bookedItem).booker(user1).build();
+        ownItem.getBookings().add(ownItemBooking);
+        user1.getItems().add(ownItem);
+        user1.getBookings().add(userBooking);
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+
+        userService.deleteById(user1.getId());
+
+        verify(intervalIndex, times(1)).remove(ownItem.getId(), ownItemBooking.getId());
+        verify(intervalIndex, times(1)).remove(bookedItem.getId(), userBooking.getId());
+        // Сводки бронирований поправляются только для чужих вещей: сводки своих вещей удаляются каскадно.
+        verify(summaryService, times(1)).onBookingsDeleted(user1.getBookings());
+    }
+
+    @Test
+    void deleteById_whenUserHasRequests_thenRequestsRemovedFromMatchingIndexTest() {
+        final ItemRequest request = ItemRequest.builder().id(30L).description("Нужна дрель").requestor(user1).build();
+        user1.getRequests().add(request);
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+
+        userService.deleteById(user1.getId());
+
+        verify(matchingIndex, times(1)).remove(request.getId());
+    }
+
     @Test
     void checkUserExist_userExist_thenNotThrown() {
-        when(userRepository.existsById(user1.getId())).thenReturn(true);
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
 
         userService.checkUserExist(user1.getId());
 
-        verify(userRepository, times(1)).existsById(user1.getId());
+        verify(userRepository, times(1)).findById(user1.getId());
     }
 
     @Test
     void checkUserExist_userIsNotExist_thenThrown() {
-        when(userRepository.existsById(user1.getId())).thenReturn(false);
+        when(userRepository.findById(user1.getId())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () ->  userService.checkUserExist(user1.getId()));
 
-        verify(userRepository, times(1)).existsById(user1.getId());
+        verify(userRepository, times(1)).findById(user1.getId());
     }
 
 }
\ No newline at end of file